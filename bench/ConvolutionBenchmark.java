@@ -0,0 +1,76 @@
+import java.util.Random;
+import model.ConvolutionEngine;
+import model.image.Image;
+import model.image.ImageFactory;
+
+/**
+ * Benchmark of the direct and separable convolution strategies on a wide image, filtering whole
+ * rows at a time against filtering cache-sized tiles of columns. Run it with an optional width and
+ * height, 8192 by 1024 by default; it prints the best time of a few runs of each case. It is a
+ * standalone program kept out of the unit tests, see the README for how to run it.
+ */
+public class ConvolutionBenchmark {
+
+  private static final int RUNS = 5;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args optional width and height of the image
+   */
+  public static void main(String[] args) {
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 8192;
+    int height = args.length > 1 ? Integer.parseInt(args[1]) : 1024;
+    Image image = ImageFactory.create(width, height);
+    Random random = new Random(1);
+    int[] line = new int[width];
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        line[col] = random.nextInt(0x1000000);
+      }
+      image.setRow(row, line);
+    }
+    Image dest = ImageFactory.createLike(image);
+
+    double[][] blur = {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
+    double[][] sharpen = {{-0.125, -0.125, -0.125, -0.125, -0.125},
+        {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, 0.25, 1, 0.25, -0.125},
+        {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, -0.125, -0.125, -0.125, -0.125}};
+    double[][] gaussian = new double[13][13];
+    double[] weights = new double[13];
+    double total = 0;
+    for (int i = 0; i < 13; i++) {
+      weights[i] = Math.exp(-(i - 6) * (i - 6) / 8.0);
+      total += weights[i];
+    }
+    for (int i = 0; i < 13; i++) {
+      for (int j = 0; j < 13; j++) {
+        gaussian[i][j] = weights[i] / total * weights[j] / total;
+      }
+    }
+
+    System.out.printf("%dx%d image, best of %d runs%n", width, height, RUNS);
+    run("blur 3x3 separable", blur, ConvolutionEngine.Strategy.SEPARABLE, image, dest);
+    run("blur 3x3 direct", blur, ConvolutionEngine.Strategy.DIRECT, image, dest);
+    run("sharpen 5x5 direct", sharpen, ConvolutionEngine.Strategy.DIRECT, image, dest);
+    run("gaussian 13x13 separable", gaussian, ConvolutionEngine.Strategy.SEPARABLE, image, dest);
+  }
+
+  private static void run(String name, double[][] kernel, ConvolutionEngine.Strategy strategy,
+      Image image, Image dest) {
+    long rows = time(new ConvolutionEngine(kernel, image.getWidth()), strategy, image, dest);
+    long tiles = time(new ConvolutionEngine(kernel), strategy, image, dest);
+    System.out.printf("%-26s whole rows %6d ms   tiles %6d ms%n", name, rows, tiles);
+  }
+
+  private static long time(ConvolutionEngine engine, ConvolutionEngine.Strategy strategy,
+      Image image, Image dest) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      engine.apply(image, dest, 0, image.getHeight(), strategy);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return best / 1_000_000;
+  }
+}
@@ -0,0 +1,57 @@
+import java.util.Random;
+import java.util.function.Function;
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.ImageFactory;
+import model.image.PixelKernels;
+
+/**
+ * Benchmark of the pointwise operations running on PixelKernels. Run it with an optional width and
+ * height, 4000 by 3000 by default; it prints the best time of a few runs of each operation on one
+ * thread. Compare a run with {@code --add-modules jdk.incubator.vector} against one without, or
+ * with {@code -Dimage.kernels=scalar}, to see the gain of the Vector API kernels.
+ */
+public class PixelKernelBenchmark {
+
+  private static final int RUNS = 7;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args optional width and height of the image
+   */
+  public static void main(String[] args) {
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int height = args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+    Image image = ImageFactory.create(width, height);
+    Random random = new Random(1);
+    int[] line = new int[width];
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        line[col] = random.nextInt(0x1000000);
+      }
+      image.setRow(row, line);
+    }
+    ImgModel model = new ImageModel();
+
+    System.out.printf("%dx%d image, %s kernels, best of %d runs%n", width, height,
+        PixelKernels.isVectorized() ? "vector" : "scalar", RUNS);
+    run("brighten", m -> m.brighten(image, 40), model);
+    run("greyscale", m -> m.toGreyscale(image), model);
+    run("sepia", m -> m.sepia(image), model);
+    run("luma", m -> m.luma(image), model);
+    run("value", m -> m.value(image), model);
+    run("intensity", m -> m.intensity(image), model);
+  }
+
+  private static void run(String name, Function<ImgModel, Image> operation, ImgModel model) {
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < RUNS; i++) {
+      long start = System.nanoTime();
+      model.materialize(operation.apply(model));
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf("%-10s %6d ms%n", name, best / 1_000_000);
+  }
+}
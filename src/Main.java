@@ -4,6 +4,7 @@ import controller.ImgUIController;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import model.ImageModel;
+import model.ParallelImageModel;
 import view.ImageView;
 import view.ImgView;
 
@@ -19,7 +20,7 @@ public class Main {
    */
   public static void main(String[] args) {
     BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-    ImageModel imageModel = new ImageModel();
+    ImageModel imageModel = new ParallelImageModel();
     ImgView imageView = new ImageView();
 
     ImgUIController uiController = new ImageUIController(imageModel, imageView);
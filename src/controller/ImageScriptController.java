@@ -3,11 +3,20 @@ package controller;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
 import model.ImgModel;
+import model.Region;
+import model.Resampler;
+import model.image.FloatImage;
 import model.image.Image;
+import model.image.ImagePool;
+import model.image.LazyImage;
 import utils.ImageIOHelper;
 
 /**
@@ -18,8 +27,16 @@ import utils.ImageIOHelper;
  */
 public class ImageScriptController implements ImgCommandController {
 
+  /**
+   * Longest chain of lazy views kept when storing an image. Views that do not compose into one,
+   * such as brighten and sepia in turn, stack up, and every read walks the whole chain.
+   */
+  private static final int MAX_VIEW_DEPTH = 8;
+
   private ImgModel imageModel;
   private Map<String, Image> images = new HashMap<>();
+  private boolean floatPrecision = false;
+  private Map<String, Integer> readsAhead = Map.of();
 
   /**
    * Empty constructor.
@@ -50,18 +67,227 @@ public class ImageScriptController implements ImgCommandController {
 
   @Override
   public void runScript(String scriptPath) {
+    List<String> lines = new ArrayList<>();
     try {
       BufferedReader reader = new BufferedReader(new FileReader(scriptPath));
       String line;
       while ((line = reader.readLine()) != null) {
-        this.processCommand(line);
+        lines.add(line);
       }
       reader.close();
     } catch (IOException e) {
       System.out.println(e.getMessage());
+      return;
     }
+    Map<String, Integer> outer = readsAhead;
+    for (int i = 0; i < lines.size(); i++) {
+      readsAhead = countReadsAhead(lines, i);
+      this.processCommand(lines.get(i));
+    }
+    readsAhead = outer;
   }
 
+  /**
+   * Count how many of the later lines of a script read each image the given line writes, up to
+   * the line that overwrites it. Empty lines and comments read and write nothing.
+   *
+   * @param lines the lines of the script
+   * @param index the line writing the images
+   * @return the number of reads of each image written by the line
+   */
+  private static Map<String, Integer> countReadsAhead(List<String> lines, int index) {
+    Map<String, Integer> reads = new HashMap<>();
+    if (isComment(lines.get(index))) {
+      return reads;
+    }
+    for (String name : outputNames(lines.get(index).split(" "))) {
+      reads.put(name, 0);
+    }
+    Set<String> overwritten = new HashSet<>();
+    for (int i = index + 1; i < lines.size() && overwritten.size() < reads.size(); i++) {
+      if (isComment(lines.get(i))) {
+        continue;
+      }
+      String[] tokens = lines.get(i).split(" ");
+      for (String name : inputNames(tokens)) {
+        if (reads.containsKey(name) && !overwritten.contains(name)) {
+          reads.merge(name, 1, Integer::sum);
+        }
+      }
+      for (String name : outputNames(tokens)) {
+        if (reads.containsKey(name)) {
+          overwritten.add(name);
+        }
+      }
+    }
+    return reads;
+  }
+
+  private static boolean isComment(String line) {
+    return line.isEmpty() || line.startsWith("#");
+  }
+
+  /**
+   * Return the names of the images a command reads.
+   */
+  private static List<String> inputNames(String[] tokens) {
+    switch (tokens[0]) {
+      case "load":
+      case "precision":
+      case "run":
+        return List.of();
+      case "save":
+      case "compress":
+        return tokens.length > 2 ? List.of(tokens[2]) : List.of();
+      case "rgb-combine":
+        return tokens.length > 4 ? List.of(tokens[2], tokens[3], tokens[4]) : List.of();
+      case "levels-adjust":
+        return tokens.length > 4 ? List.of(tokens[4]) : List.of();
+      default:
+        return tokens.length > 1 ? List.of(tokens[1]) : List.of();
+    }
+  }
+
+  /**
+   * Return the names of the images a command writes.
+   */
+  private static List<String> outputNames(String[] tokens) {
+    switch (tokens[0]) {
+      case "save":
+      case "precision":
+      case "run":
+        return List.of();
+      case "compress":
+        return tokens.length > 3 ? List.of(tokens[3]) : List.of();
+      case "pyramid":
+        return tokens.length > 3 && tokens[3].matches("\\d{1,2}")
+            ? pyramidNames(tokens[2], Integer.parseInt(tokens[3])) : List.of();
+      case "rgb-split":
+        return tokens.length > 4 ? List.of(tokens[2], tokens[3], tokens[4]) : List.of();
+      case "rgb-combine":
+        return tokens.length > 1 ? List.of(tokens[1]) : List.of();
+      case "levels-adjust":
+        return tokens.length > 5 ? List.of(tokens[5]) : List.of();
+      default:
+        return tokens.length > 2 ? List.of(tokens[2]) : List.of();
+    }
+  }
+
+
+  /**
+   * Return the names the levels of a pyramid are stored under.
+   */
+  private static List<String> pyramidNames(String prefix, int levels) {
+    List<String> names = new ArrayList<>();
+    for (int level = 1; level <= levels; level++) {
+      names.add(prefix + "-" + level);
+    }
+    return names;
+  }
+
+  /**
+   * Store the image under the given name and give the image it replaces back to the pool. Lazy
+   * results, such as a chain of pointwise operations, are kept as views so the whole chain is
+   * computed in one pass when it is read, unless the script is known to read the image more than
+   * once: then it is materialized, so the chain is not computed again for each reader. A chain
+   * longer than MAX_VIEW_DEPTH is materialized too, as interactive commands have no lines to look
+   * ahead at.
+   *
+   * @param name  the reference name
+   * @param image the image to store
+   */
+  private void store(String name, Image image) {
+    if (image instanceof LazyImage && (readsAhead.getOrDefault(name, 0) > 1
+        || ((LazyImage) image).getViewDepth() > MAX_VIEW_DEPTH)) {
+      imageModel.materialize(image);
+    }
+    discard(images.put(name, image));
+  }
+
+  /**
+   * Give an image that is no longer needed back to the pool, unless a stored image still uses it.
+   *
+   * @param image the image to discard, may be null
+   */
+  private void discard(Image image) {
+    if (image != null) {
+      ImagePool.getShared().release(image, images.values());
+    }
+  }
+
+  /**
+   * Return the part of a stored image a split view processes.
+   *
+   * @param name       the name of the image
+   * @param percentage the percentage of the width left of the split
+   * @return the region left of the split
+   */
+  private Region splitRegion(String name, String percentage) {
+    return Region.split(images.get(name), Integer.parseInt(percentage));
+  }
+
+  /**
+   * Return whether a command may overwrite its input instead of allocating a result: the result
+   * replaces the input under the same name, and no other stored image is the input or a view of
+   * it. Lazy and float images are left to the copying operations, which do not allocate a full
+   * image for them anyway.
+   *
+   * @param input  the name of the input image
+   * @param output the name of the result
+   * @return true if the input can be modified in place
+   */
+  private boolean canModifyInPlace(String input, String output) {
+    Image image = images.get(input);
+    if (!input.equals(output) || image == null || image instanceof LazyImage
+        || image instanceof FloatImage) {
+      return false;
+    }
+    List<Image> others = new ArrayList<>();
+    for (Map.Entry<String, Image> entry : images.entrySet()) {
+      if (!entry.getKey().equals(input)) {
+        others.add(entry.getValue());
+      }
+    }
+    return !ImagePool.isUsed(image, others);
+  }
+
+  /**
+   * Parse a square kernel written as comma separated values, row by row.
+   *
+   * @param values the values of the kernel
+   * @return the kernel, or null if the number of values is not the square of an odd number
+   */
+  private double[][] parseKernel(String values) {
+    String[] parts = values.split(",");
+    int size = (int) Math.round(Math.sqrt(parts.length));
+    if (size * size != parts.length || size % 2 == 0) {
+      return null;
+    }
+    double[][] kernel = new double[size][size];
+    for (int i = 0; i < parts.length; i++) {
+      kernel[i / size][i % size] = Double.parseDouble(parts[i].trim());
+    }
+    return kernel;
+  }
+
+  /**
+   * Parse a colour matrix written as comma separated values, row by row.
+   *
+   * @param values the values of the matrix
+   * @return the matrix, or null if there are neither 9 nor 12 values
+   */
+  private double[][] parseColorMatrix(String values) {
+    String[] parts = values.split(",");
+    if (parts.length != 9 && parts.length != 12) {
+      return null;
+    }
+    int columns = parts.length / 3;
+    double[][] matrix = new double[3][columns];
+    for (int i = 0; i < parts.length; i++) {
+      matrix[i / columns][i % columns] = Double.parseDouble(parts[i].trim());
+    }
+    return matrix;
+  }
 
   /**
    * Processes individual commands entered by the user. Each command corresponds to an image
@@ -71,7 +297,7 @@ public class ImageScriptController implements ImgCommandController {
    */
   private void processCommand(String command) {
     // Skip empty lines or comments
-    if (command.isEmpty() || command.startsWith("#")) {
+    if (isComment(command)) {
       return;
     }
     String[] tokens = command.split(" ");
@@ -81,135 +307,236 @@ public class ImageScriptController implements ImgCommandController {
           System.out.println("Usage: load <input_file_path> <reference_name>");
         } else {
           Image image = ImageIOHelper.loadImage(tokens[1]);
-          images.put(tokens[2], image);
+          if (floatPrecision) {
+            // Keep the whole chain in float, values are only quantized when saved
+            image = FloatImage.copyOf(image);
+          }
+          store(tokens[2], image);
+        }
+        break;
+      case "precision":
+        if (tokens.length != 2 || !tokens[1].equals("float") && !tokens[1].equals("int")) {
+          System.out.println("Usage: precision <float|int>");
+        } else {
+          floatPrecision = tokens[1].equals("float");
         }
         break;
       case "save":
         if (tokens.length != 3) {
           System.out.println("Usage: save <save_path> <output_name>");
         } else {
-          ImageIOHelper.saveImage(tokens[1], images.get(tokens[2]));
+          Image saved = images.get(tokens[2]);
+          // A lazy result is computed by the model, in bands of rows, rather than by the writer
+          ImageIOHelper.saveImage(tokens[1], saved == null ? null : imageModel.materialize(saved));
         }
         break;
       case "horizontal-flip":
         if (tokens.length != 3) {
           System.out.println("Usage: horizontal-flip <reference_name> <output_name>");
         } else {
-          Image img = imageModel.flipHorizontal(images.get(tokens[1]));
-          images.put(tokens[2], img);
+          if (canModifyInPlace(tokens[1], tokens[2])) {
+            imageModel.flipHorizontalInPlace(images.get(tokens[1]));
+          } else {
+            store(tokens[2], imageModel.flipHorizontal(images.get(tokens[1])));
+          }
         }
         break;
       case "vertical-flip":
         if (tokens.length != 3) {
           System.out.println("Usage: horizontal-flip <reference_name> <output_name>");
         } else {
-          Image img = imageModel.flipVertical(images.get(tokens[1]));
-          images.put(tokens[2], img);
+          if (canModifyInPlace(tokens[1], tokens[2])) {
+            imageModel.flipVerticalInPlace(images.get(tokens[1]));
+          } else {
+            store(tokens[2], imageModel.flipVertical(images.get(tokens[1])));
+          }
         }
         break;
       case "brighten":
         int increment = Integer.parseInt(tokens[3]);
-        Image img = imageModel.brighten(images.get(tokens[1]), increment);
-        images.put(tokens[2], img);
+        if (canModifyInPlace(tokens[1], tokens[2])) {
+          imageModel.brightenInPlace(images.get(tokens[1]), increment);
+        } else {
+          store(tokens[2], imageModel.brighten(images.get(tokens[1]), increment));
+        }
         break;
       case "rgb-split":
-        Image r = imageModel.redComponent(images.get(tokens[1]));
-        Image g = imageModel.greenComponent(images.get(tokens[1]));
-        Image b = imageModel.blueComponent(images.get(tokens[1]));
-        images.put(tokens[2], r);
-        images.put(tokens[3], g);
-        images.put(tokens[4], b);
+        List<Image> channels = imageModel.splitChannels(images.get(tokens[1]));
+        store(tokens[2], channels.get(0));
+        store(tokens[3], channels.get(1));
+        store(tokens[4], channels.get(2));
         break;
       case "rgb-combine":
         Image combined = imageModel.combineImage(images.get(tokens[2]), images.get(tokens[3]),
             images.get(tokens[4]));
-        images.put(tokens[1], combined);
+        store(tokens[1], combined);
         break;
       case "red-component":
         Image redComponent = imageModel.redComponent(images.get(tokens[1]));
-        images.put(tokens[2], redComponent);
+        store(tokens[2], redComponent);
         break;
       case "green-component":
         Image greenComponent = imageModel.greenComponent(images.get(tokens[1]));
-        images.put(tokens[2], greenComponent);
+        store(tokens[2], greenComponent);
         break;
       case "blue-component":
         Image blueComponent = imageModel.blueComponent(images.get(tokens[1]));
-        images.put(tokens[2], blueComponent);
+        store(tokens[2], blueComponent);
         break;
       case "value-component":
         Image value = imageModel.value(images.get(tokens[1]));
-        images.put(tokens[2], value);
+        store(tokens[2], value);
         break;
       case "luma-component":
         Image luma = imageModel.luma(images.get(tokens[1]));
-        images.put(tokens[2], luma);
+        store(tokens[2], luma);
         break;
       case "intensity-component":
         Image intensity = imageModel.intensity(images.get(tokens[1]));
-        images.put(tokens[2], intensity);
+        store(tokens[2], intensity);
         break;
       case "blur":
-        Image blur = imageModel.blur(images.get(tokens[1]));
-        if (tokens.length == 5) {
-          int splitPercentage = Integer.parseInt(tokens[4]);
-          blur = imageModel.splitView(images.get(tokens[1]), blur, splitPercentage);
+        if (tokens.length == 4) {
+          if (!tokens[3].matches("\\d{1,9}")) {
+            System.out.println(
+                "Usage: blur <reference_name> <output_name> [<radius> | split <percentage>]");
+            break;
+          }
+          int radius = Integer.parseInt(tokens[3]);
+          store(tokens[2], imageModel.blur(images.get(tokens[1]), radius));
+          break;
         }
-        images.put(tokens[2], blur);
+        Image blur = tokens.length == 5
+            ? imageModel.blur(images.get(tokens[1]), splitRegion(tokens[1], tokens[4]))
+            : imageModel.blur(images.get(tokens[1]));
+        store(tokens[2], blur);
         break;
-      case "sepia":
-        Image sepia = imageModel.sepia(images.get(tokens[1]));
-        if (tokens.length == 5) {
-          int splitPercentage = Integer.parseInt(tokens[4]);
-          sepia = imageModel.splitView(images.get(tokens[1]), sepia, splitPercentage);
+      case "box-blur":
+        if (tokens.length != 4) {
+          System.out.println("Usage: box-blur <reference_name> <output_name> <radius>");
+        } else {
+          int radius = Integer.parseInt(tokens[3]);
+          store(tokens[2], imageModel.boxBlur(images.get(tokens[1]), radius));
         }
-        images.put(tokens[2], sepia);
         break;
-      case "sharpen":
-        Image sharpen = imageModel.sharpen(images.get(tokens[1]));
-        if (tokens.length == 5) {
-          int splitPercentage = Integer.parseInt(tokens[4]);
-          sharpen = imageModel.splitView(images.get(tokens[1]), sharpen, splitPercentage);
+      case "gaussian-blur":
+        if (tokens.length != 4) {
+          System.out.println("Usage: gaussian-blur <reference_name> <output_name> <sigma>");
+        } else {
+          double sigma = Double.parseDouble(tokens[3]);
+          store(tokens[2], imageModel.gaussianBlur(images.get(tokens[1]), sigma));
         }
-        images.put(tokens[2], sharpen);
         break;
-      case "greyScale":
-        Image greyScale = imageModel.toGreyscale(images.get(tokens[1]));
-        if (tokens.length == 5) {
-          int splitPercentage = Integer.parseInt(tokens[4]);
-          greyScale = imageModel.splitView(images.get(tokens[1]), greyScale, splitPercentage);
+      case "convolve":
+        if (tokens.length != 4) {
+          System.out.println(
+              "Usage: convolve <reference_name> <output_name> <comma_separated_kernel>");
+        } else {
+          double[][] kernel = parseKernel(tokens[3]);
+          if (kernel == null) {
+            System.out.println("Kernel must have an odd square number of values, e.g. 9 or 25");
+          } else {
+            store(tokens[2], imageModel.convolve(images.get(tokens[1]), kernel));
+          }
         }
-        images.put(tokens[2], greyScale);
         break;
-      case "color-correct":
-        Image correctedImage = imageModel.correctColor(images.get(tokens[1]));
-        if (tokens.length == 5) {
-          int splitPercentage = Integer.parseInt(tokens[4]);
-          correctedImage = imageModel.splitView(images.get(tokens[1]), correctedImage,
-              splitPercentage);
+      case "color-matrix":
+        if (tokens.length != 4) {
+          System.out.println(
+              "Usage: color-matrix <reference_name> <output_name> <comma_separated_matrix>");
+        } else {
+          double[][] matrix = parseColorMatrix(tokens[3]);
+          if (matrix == null) {
+            System.out.println("Matrix must have 9 values, or 12 with an offset after each row");
+          } else {
+            if (canModifyInPlace(tokens[1], tokens[2])) {
+              imageModel.colorMatrixInPlace(images.get(tokens[1]), matrix);
+            } else {
+              store(tokens[2], imageModel.colorMatrix(images.get(tokens[1]), matrix));
+            }
+          }
         }
-        images.put(tokens[2], correctedImage);
+        break;
+      case "sepia":
+        Image sepia = tokens.length == 5
+            ? imageModel.sepia(images.get(tokens[1]), splitRegion(tokens[1], tokens[4]))
+            : imageModel.sepia(images.get(tokens[1]));
+        store(tokens[2], sepia);
+        break;
+      case "sharpen":
+        Image sharpen = tokens.length == 5
+            ? imageModel.sharpen(images.get(tokens[1]), splitRegion(tokens[1], tokens[4]))
+            : imageModel.sharpen(images.get(tokens[1]));
+        store(tokens[2], sharpen);
+        break;
+      case "greyScale":
+        Image greyScale = tokens.length == 5
+            ? imageModel.toGreyscale(images.get(tokens[1]), splitRegion(tokens[1], tokens[4]))
+            : imageModel.toGreyscale(images.get(tokens[1]));
+        store(tokens[2], greyScale);
+        break;
+      case "color-correct":
+        Image correctedImage = tokens.length == 5
+            ? imageModel.correctColor(images.get(tokens[1]), splitRegion(tokens[1], tokens[4]))
+            : imageModel.correctColor(images.get(tokens[1]));
+        store(tokens[2], correctedImage);
         break;
       case "levels-adjust":
         int black = Integer.parseInt(tokens[1]);
         int mid = Integer.parseInt(tokens[2]);
         int white = Integer.parseInt(tokens[3]);
-        Image adjustedImage = imageModel.adjustLevels(images.get(tokens[4]), black, mid, white);
-        if (tokens.length == 5) {
-          int splitPercentage = Integer.parseInt(tokens[4]);
-          adjustedImage = imageModel.splitView(images.get(tokens[1]), adjustedImage,
-              splitPercentage);
+        if (tokens.length == 6 && canModifyInPlace(tokens[4], tokens[5])) {
+          imageModel.adjustLevelsInPlace(images.get(tokens[4]), black, mid, white);
+        } else {
+          Image adjustedImage = tokens.length == 8
+              ? imageModel.adjustLevels(images.get(tokens[4]), black, mid, white,
+              splitRegion(tokens[4], tokens[7]))
+              : imageModel.adjustLevels(images.get(tokens[4]), black, mid, white);
+          store(tokens[5], adjustedImage);
         }
-        images.put(tokens[5], adjustedImage);
         break;
       case "histogram":
         Image histogram = imageModel.histogram(images.get(tokens[1]));
-        images.put(tokens[2], histogram);
+        store(tokens[2], histogram);
+        break;
+      case "resize":
+        if (tokens.length != 5 && tokens.length != 6) {
+          System.out.println("Usage: resize <reference_name> <output_name> <width> <height>"
+              + " [box|triangle|bicubic|lanczos]");
+        } else {
+          int newWidth = Integer.parseInt(tokens[3]);
+          int newHeight = Integer.parseInt(tokens[4]);
+          Resampler.Filter filter = tokens.length == 6
+              ? Resampler.Filter.valueOf(tokens[5].toUpperCase()) : Resampler.Filter.BICUBIC;
+          store(tokens[2], imageModel.resize(images.get(tokens[1]), newWidth, newHeight, filter));
+        }
+        break;
+      case "area-downscale":
+        if (tokens.length != 5) {
+          System.out.println(
+              "Usage: area-downscale <reference_name> <output_name> <width> <height>");
+        } else {
+          int newWidth = Integer.parseInt(tokens[3]);
+          int newHeight = Integer.parseInt(tokens[4]);
+          store(tokens[2], imageModel.areaDownscale(images.get(tokens[1]), newWidth, newHeight));
+        }
+        break;
+      case "pyramid":
+        if (tokens.length != 4) {
+          System.out.println("Usage: pyramid <reference_name> <output_prefix> <levels>");
+        } else {
+          List<Image> levels = imageModel.pyramid(images.get(tokens[1]),
+              Integer.parseInt(tokens[3]));
+          List<String> names = pyramidNames(tokens[2], levels.size());
+          for (int level = 0; level < levels.size(); level++) {
+            store(names.get(level), levels.get(level));
+          }
+        }
         break;
       case "compress":
         int percentage = Integer.parseInt(tokens[1]);
         Image compressed = imageModel.compressImage(images.get(tokens[2]), percentage);
-        images.put(tokens[3], compressed);
+        store(tokens[3], compressed);
         break;
       case "run":
         runScript(tokens[1]);
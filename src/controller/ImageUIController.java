@@ -5,6 +5,8 @@ import java.util.Objects;
 import java.util.Stack;
 import model.ImgModel;
 import model.image.Image;
+import model.image.ImagePool;
+import model.image.TiledImage;
 import utils.ImageIOHelper;
 import utils.ImageTransformer;
 import view.ImgView;
@@ -97,7 +99,8 @@ public class ImageUIController implements ImgUIController {
 
   private void loadImage(String path) {
     try {
-      Image image = ImageIOHelper.loadImage(path);
+      // Keep the history tiled so that partial edits share unchanged tiles with earlier entries
+      Image image = TiledImage.copyOf(ImageIOHelper.loadImage(path));
       imageStack.push(image);
       imageView.updateImage(ImageTransformer.transformImageToBufferImage(image), histogram(image));
     } catch (Exception e) {
@@ -111,13 +114,13 @@ public class ImageUIController implements ImgUIController {
   }
 
   private void flipVertical(Image image) {
-    Image res = imageModel.flipVertical(image);
+    Image res = imageModel.materialize(imageModel.flipVertical(image));
     imageStack.push(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
 
   private void flipHorizontal(Image image) {
-    Image res = imageModel.flipHorizontal(image);
+    Image res = imageModel.materialize(imageModel.flipHorizontal(image));
     imageStack.push(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
@@ -129,13 +132,13 @@ public class ImageUIController implements ImgUIController {
   }
 
   private void applySepia(Image image) {
-    Image res = imageModel.sepia(image);
+    Image res = imageModel.materialize(imageModel.sepia(image));
     imageStack.push(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
 
   private void convertToGrayscale(Image image) {
-    Image res = imageModel.toGreyscale(image);
+    Image res = imageModel.materialize(imageModel.toGreyscale(image));
     imageStack.push(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
@@ -157,23 +160,26 @@ public class ImageUIController implements ImgUIController {
     imageStack.push(origin);
     Image res = imageModel.splitView(origin, changed, splitRatio);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(origin));
+    ImagePool.getShared().release(res, imageStack);
   }
 
   private void colorCorrection(Image image) {
-    Image res = imageModel.correctColor(image);
+    Image res = imageModel.materialize(imageModel.correctColor(image));
     imageStack.push(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
 
   private void levelAdjustment(Image image, int black, int mid, int white) {
-    Image res = imageModel.adjustLevels(image, black, mid, white);
+    Image res = imageModel.materialize(imageModel.adjustLevels(image, black, mid, white));
     imageStack.push(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
 
   private BufferedImage histogram(Image image) {
     Image res = imageModel.histogram(image);
-    return ImageTransformer.transformImageToBufferImage(res);
+    BufferedImage histogram = ImageTransformer.transformImageToBufferImage(res);
+    ImagePool.getShared().release(res, imageStack);
+    return histogram;
   }
 
   private Image getCurrentImage() {
@@ -192,6 +198,7 @@ public class ImageUIController implements ImgUIController {
     } else if (Objects.equals(color, "Green")) {
       res = imageModel.greenComponent(image);
     }
+    res = imageModel.materialize(res);
     imageView.updateImage(ImageTransformer.transformImageToBufferImage(res), histogram(res));
   }
 
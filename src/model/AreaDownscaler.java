@@ -0,0 +1,241 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import model.image.Image;
+import model.image.ImageFactory;
+
+/**
+ * Downscales images by area averaging: every output pixel is the average of the source pixels its
+ * area covers, partly covered pixels counting in proportion. The weights are exact integers worked
+ * out once per row and column when the downscaler is created, so the inner loops only multiply and
+ * add, and the channel averages are rounded once. A downscaler is immutable and can be shared
+ * between threads.
+ */
+public class AreaDownscaler {
+
+  private final int width;
+  private final int height;
+  private final int newWidth;
+  private final int newHeight;
+  private final Axis columns;
+  private final Axis rows;
+
+  /**
+   * Source pixels and weights of every output pixel along one axis. Output pixel i covers the
+   * source interval [i * size / newSize, (i + 1) * size / newSize). Measured in units of 1 /
+   * newSize source pixel, source pixel p spans [p * newSize, (p + 1) * newSize), so the overlaps
+   * are whole numbers and the weights of an output pixel add up to size.
+   */
+  private static final class Axis {
+
+    private final int[] first;
+    private final int[] offset;
+    private final int[] weights;
+
+    private Axis(int size, int newSize) {
+      this.first = new int[newSize];
+      this.offset = new int[newSize + 1];
+      for (int i = 0; i < newSize; i++) {
+        first[i] = (int) ((long) i * size / newSize);
+        int last = (int) (((long) (i + 1) * size - 1) / newSize);
+        offset[i + 1] = offset[i] + last - first[i] + 1;
+      }
+      this.weights = new int[offset[newSize]];
+      for (int i = 0; i < newSize; i++) {
+        long start = (long) i * size;
+        long end = start + size;
+        for (int k = offset[i]; k < offset[i + 1]; k++) {
+          long p = first[i] + k - offset[i];
+          weights[k] = (int) (Math.min(end, (p + 1) * newSize) - Math.max(start, p * newSize));
+        }
+      }
+    }
+  }
+
+  /**
+   * Constructor of the downscaler.
+   *
+   * @param width     width of the source images
+   * @param height    height of the source images
+   * @param newWidth  width of the downscaled images
+   * @param newHeight height of the downscaled images
+   * @throws IllegalArgumentException if a size is not positive or the new size is larger than the
+   *                                  source size
+   */
+  public AreaDownscaler(int width, int height, int newWidth, int newHeight) {
+    if (width <= 0 || height <= 0 || newWidth <= 0 || newHeight <= 0) {
+      throw new IllegalArgumentException("Dimensions must be greater than zero");
+    }
+    if (newWidth > width || newHeight > height) {
+      throw new IllegalArgumentException("Area averaging can only make an image smaller");
+    }
+    this.width = width;
+    this.height = height;
+    this.newWidth = newWidth;
+    this.newHeight = newHeight;
+    this.columns = new Axis(width, newWidth);
+    this.rows = new Axis(height, newHeight);
+  }
+
+  /**
+   * Downscale a whole image.
+   *
+   * @param img the image to downscale, of the source size
+   * @return the downscaled image
+   */
+  public Image apply(Image img) {
+    Image result = ImageFactory.createLike(img, newWidth, newHeight);
+    apply(img, result, 0, newHeight);
+    return result;
+  }
+
+  /**
+   * Downscale the source rows under a band of output rows. Only the rows of the band are written,
+   * so bands can be computed concurrently.
+   *
+   * @param img      the image to downscale, of the source size
+   * @param dest     the image receiving the result, of the new size
+   * @param startRow first output row of the band
+   * @param endRow   output row after the last row of the band
+   * @throws IllegalArgumentException if the image does not have the source size
+   */
+  public void apply(Image img, Image dest, int startRow, int endRow) {
+    if (img.getWidth() != width || img.getHeight() != height) {
+      throw new IllegalArgumentException("Image does not have the size of the downscaler");
+    }
+    // Every output pixel gathers width * height units of weight
+    long total = (long) width * height;
+    int[] pixels = new int[width];
+    long[] rowSums = new long[3 * newWidth];
+    long[] sums = new long[3 * newWidth];
+    int[] line = new int[newWidth];
+    for (int row = startRow; row < endRow; row++) {
+      Arrays.fill(sums, 0);
+      for (int k = rows.offset[row]; k < rows.offset[row + 1]; k++) {
+        img.getRow(rows.first[row] + k - rows.offset[row], pixels);
+        sumColumns(pixels, rowSums);
+        long weight = rows.weights[k];
+        for (int i = 0; i < sums.length; i++) {
+          sums[i] += weight * rowSums[i];
+        }
+      }
+      for (int col = 0; col < newWidth; col++) {
+        int newPixel = 0;
+        for (int channel = 0; channel < 3; channel++) {
+          long average = (sums[channel * newWidth + col] + total / 2) / total;
+          newPixel |= (int) average << (16 - 8 * channel);
+        }
+        line[col] = newPixel;
+      }
+      dest.setRow(row, line);
+    }
+  }
+
+  /**
+   * Weigh a source row horizontally into one sum per output column and channel, red, green and
+   * blue one after the other.
+   */
+  private void sumColumns(int[] pixels, long[] dest) {
+    for (int col = 0; col < newWidth; col++) {
+      long red = 0;
+      long green = 0;
+      long blue = 0;
+      int p = columns.first[col];
+      for (int k = columns.offset[col]; k < columns.offset[col + 1]; k++, p++) {
+        int rgb = pixels[p];
+        int weight = columns.weights[k];
+        red += weight * ((rgb >> 16) & 0xFF);
+        green += weight * ((rgb >> 8) & 0xFF);
+        blue += weight * (rgb & 0xFF);
+      }
+      dest[col] = red;
+      dest[newWidth + col] = green;
+      dest[2 * newWidth + col] = blue;
+    }
+  }
+
+  /**
+   * Build the 1/2, 1/4, 1/8... reductions of an image in one pass over its rows. Level k is
+   * (width / 2^k) by (height / 2^k) rounded up, and each of its pixels is the rounded average of
+   * the source pixels of its 2^k by 2^k block, fewer along an odd edge. Only one row of sums per
+   * level is kept while the source is read.
+   *
+   * @param img    the image to reduce
+   * @param levels the number of reductions
+   * @return the reductions, halved once at index 0, twice at index 1 and so on
+   * @throws IllegalArgumentException if levels is not between 1 and 30
+   */
+  public static List<Image> pyramid(Image img, int levels) {
+    if (levels < 1 || levels > 30) {
+      throw new IllegalArgumentException("Levels must be between 1 and 30");
+    }
+    int width = img.getWidth();
+    int height = img.getHeight();
+    List<Image> images = new ArrayList<>();
+    long[][] pending = new long[levels + 1][];
+    int[] widths = new int[levels + 1];
+    int[] heights = new int[levels + 1];
+    widths[0] = width;
+    heights[0] = height;
+    for (int k = 1; k <= levels; k++) {
+      widths[k] = (widths[k - 1] + 1) / 2;
+      heights[k] = (heights[k - 1] + 1) / 2;
+      pending[k] = new long[3 * widths[k]];
+      images.add(ImageFactory.createLike(img, widths[k], heights[k]));
+    }
+
+    int[] pixels = new int[width];
+    long[] sourceRow = new long[3 * width];
+    int[][] lines = new int[levels + 1][];
+    for (int k = 1; k <= levels; k++) {
+      lines[k] = new int[widths[k]];
+    }
+    for (int row = 0; row < height; row++) {
+      img.getRow(row, pixels);
+      for (int col = 0; col < width; col++) {
+        int rgb = pixels[col];
+        sourceRow[col] = (rgb >> 16) & 0xFF;
+        sourceRow[width + col] = (rgb >> 8) & 0xFF;
+        sourceRow[2 * width + col] = rgb & 0xFF;
+      }
+      long[] child = sourceRow;
+      int childRow = row;
+      // Add the row to the pending sums of level 1; when that completes a row, write it and add it
+      // to level 2, and so on
+      for (int k = 1; k <= levels; k++) {
+        long[] sums = pending[k];
+        int childWidth = widths[k - 1];
+        if (childRow % 2 == 0) {
+          Arrays.fill(sums, 0);
+        }
+        for (int channel = 0; channel < 3; channel++) {
+          for (int col = 0; col < childWidth; col++) {
+            sums[channel * widths[k] + col / 2] += child[channel * childWidth + col];
+          }
+        }
+        if (childRow % 2 == 0 && childRow != heights[k - 1] - 1) {
+          break;
+        }
+        int levelRow = childRow / 2;
+        long blockRows = Math.min((long) (levelRow + 1) << k, height) - ((long) levelRow << k);
+        int[] line = lines[k];
+        for (int col = 0; col < widths[k]; col++) {
+          long blockCols = Math.min((long) (col + 1) << k, width) - ((long) col << k);
+          long count = blockRows * blockCols;
+          int newPixel = 0;
+          for (int channel = 0; channel < 3; channel++) {
+            long average = (sums[channel * widths[k] + col] + count / 2) / count;
+            newPixel |= (int) average << (16 - 8 * channel);
+          }
+          line[col] = newPixel;
+        }
+        images.get(k - 1).setRow(levelRow, line);
+        child = sums;
+        childRow = levelRow;
+      }
+    }
+    return images;
+  }
+}
@@ -0,0 +1,623 @@
+package model;
+
+import java.util.Arrays;
+import model.image.Channels;
+import model.image.Image;
+import model.image.ImageFactory;
+
+/**
+ * ConvolutionEngine applies a square kernel of odd size to images, pixels outside the image repeat
+ * the nearest edge pixel. The engine has three strategies and picks the cheapest for the image
+ * size: direct convolution, a horizontal pass followed by a vertical pass for kernels that are the
+ * product of a column and a row vector, and FFT convolution of overlapping tiles for large kernels.
+ * The direct strategy, as blur and sharpen always did, truncates every product to an integer before
+ * it is added. The separable and FFT strategies compute each channel sum in double and truncate it
+ * once, so their results can be higher than the direct ones. The direct and separable strategies
+ * filter a band of rows one tile of columns at a time, reading each source row with a halo of half
+ * a kernel, so the rows under the kernel stay in cache however wide the image is. In their loops
+ * the columns within half a kernel of the left and right image edges are computed apart from the
+ * interior, so the interior loops index the source rows without clamping. An engine is immutable
+ * and can be shared between threads.
+ */
+public class ConvolutionEngine {
+
+  /**
+   * The ways a kernel can be applied.
+   */
+  public enum Strategy {
+    /**
+     * Every output pixel multiplies all k * k taps.
+     */
+    DIRECT,
+    /**
+     * A horizontal pass of k taps followed by a vertical pass of k taps.
+     */
+    SEPARABLE,
+    /**
+     * Pointwise products of Fourier transforms of overlapping tiles.
+     */
+    FFT
+  }
+
+  /**
+   * Relative tolerance when checking that a kernel is the product of its factors.
+   */
+  private static final double TOLERANCE = 1e-12;
+
+  /**
+   * Edge length of the FFT tiles, unless the kernel needs larger ones.
+   */
+  private static final int FFT_TILE = 256;
+
+  /**
+   * Estimated work of one butterfly per point and level, relative to one multiply-add.
+   */
+  private static final double FFT_BUTTERFLY_COST = 2.5;
+
+  /**
+   * Bytes of source rows a direct or separable tile keeps under the kernel.
+   */
+  private static final int TILE_BYTES = 32 * 1024;
+
+  /**
+   * Narrowest default tile, so the halos stay a small part of what is read.
+   */
+  private static final int MIN_TILE_WIDTH = 128;
+
+  private final double[][] kernel;
+  private final int size;
+  private final int half;
+  private final double[] columnWeights;
+  private final double[] rowWeights;
+  private final int tileWidth;
+
+  /**
+   * Constructor of the engine, with tiles sized to keep the rows under the kernel in cache.
+   *
+   * @param kernel the square kernel of odd size, row by row
+   * @throws IllegalArgumentException if the kernel is not square or its size is not odd
+   */
+  public ConvolutionEngine(double[][] kernel) {
+    this(kernel, 0);
+  }
+
+  /**
+   * Constructor of the engine with a given tile width. The direct and separable strategies filter
+   * a band of rows one tile of columns at a time.
+   *
+   * @param kernel    the square kernel of odd size, row by row
+   * @param tileWidth the number of columns of a tile, or 0 to size tiles to the cache
+   * @throws IllegalArgumentException if the kernel is not square or its size is not odd, or the
+   *                                  tile width is negative
+   */
+  public ConvolutionEngine(double[][] kernel, int tileWidth) {
+    if (kernel == null || kernel.length % 2 == 0) {
+      throw new IllegalArgumentException("Kernel size must be odd");
+    }
+    this.size = kernel.length;
+    this.half = size / 2;
+    this.kernel = new double[size][];
+    for (int i = 0; i < size; i++) {
+      if (kernel[i] == null || kernel[i].length != size) {
+        throw new IllegalArgumentException("Kernel must be square");
+      }
+      this.kernel[i] = kernel[i].clone();
+    }
+    double[][] factors = separate(this.kernel);
+    this.columnWeights = factors == null ? null : factors[0];
+    this.rowWeights = factors == null ? null : factors[1];
+    if (tileWidth < 0) {
+      throw new IllegalArgumentException("Tile width cannot be negative");
+    }
+    // The direct loops keep size rows of three int channels per column in cache, the separable
+    // loops size rows of three double channels
+    this.tileWidth = tileWidth > 0 ? tileWidth
+        : Math.max(MIN_TILE_WIDTH, TILE_BYTES / (size * 3 * Double.BYTES));
+  }
+
+  /**
+   * Create an engine for a normalised Gaussian kernel reaching three standard deviations.
+   *
+   * @param sigma the standard deviation in pixels
+   * @return the engine
+   * @throws IllegalArgumentException if sigma is not positive
+   */
+  public static ConvolutionEngine gaussian(double sigma) {
+    if (!(sigma > 0)) {
+      throw new IllegalArgumentException("Sigma must be greater than zero");
+    }
+    int radius = (int) Math.ceil(3 * sigma);
+    double[] weights = new double[2 * radius + 1];
+    double total = 0;
+    for (int i = -radius; i <= radius; i++) {
+      weights[i + radius] = Math.exp(-(i * i) / (2 * sigma * sigma));
+      total += weights[i + radius];
+    }
+    double[][] kernel = new double[weights.length][weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      for (int j = 0; j < weights.length; j++) {
+        kernel[i][j] = weights[i] / total * weights[j] / total;
+      }
+    }
+    return new ConvolutionEngine(kernel);
+  }
+
+  /**
+   * Return the edge length of the kernel.
+   *
+   * @return the kernel size
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Return whether the kernel is applied as a horizontal and a vertical pass.
+   *
+   * @return true if the kernel is the product of a column and a row vector
+   */
+  public boolean isSeparable() {
+    return columnWeights != null;
+  }
+
+  /**
+   * Return the cheapest strategy for an image of the given size, based on an estimate of the
+   * multiply-adds each strategy needs per pixel.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @return the strategy to use
+   */
+  public Strategy chooseStrategy(int width, int height) {
+    double best = (double) size * size;
+    Strategy strategy = Strategy.DIRECT;
+    if (isSeparable() && 2.0 * size < best) {
+      best = 2.0 * size;
+      strategy = Strategy.SEPARABLE;
+    }
+    if (width > 0 && height > 0) {
+      int fftSize = fftSize(width, height);
+      int step = fftSize - 2 * half;
+      double tiles = Math.ceil((double) width / step) * Math.ceil((double) height / step);
+      double points = (double) fftSize * fftSize;
+      // Red and green share one complex transform, blue takes a second, each forward and inverse.
+      // The per-pixel cost of the other strategies is per channel, hence the division by 3.
+      double fft = tiles * 4 * FFT_BUTTERFLY_COST * points * Math.log(points) / Math.log(2)
+          / (3.0 * width * height);
+      if (fft < best) {
+        strategy = Strategy.FFT;
+      }
+    }
+    return strategy;
+  }
+
+  /**
+   * Apply the kernel to a whole image with the cheapest strategy.
+   *
+   * @param img the image to filter
+   * @return the filtered image
+   */
+  public Image apply(Image img) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    Image result = ImageFactory.createLike(img);
+    apply(img, result, 0, img.getHeight(), chooseStrategy(img.getWidth(), img.getHeight()));
+    return result;
+  }
+
+  /**
+   * Apply the kernel to a band of rows with the given strategy. The rows of the source above and
+   * below the band are read as needed, only the rows of the band are written, so bands can be
+   * filtered concurrently.
+   *
+   * @param img      the image to filter
+   * @param dest     the image receiving the result, of the same size
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   * @param strategy how to apply the kernel
+   * @throws IllegalArgumentException if the strategy is SEPARABLE and the kernel is not
+   */
+  public void apply(Image img, Image dest, int startRow, int endRow, Strategy strategy) {
+    apply(img, dest, startRow, endRow, 0, img.getWidth(), strategy);
+  }
+
+  /**
+   * Apply the kernel to the columns startCol to endCol of a band of rows with the given strategy.
+   * The source pixels around the block are read as needed, only the pixels of the block are
+   * written.
+   *
+   * @param img      the image to filter
+   * @param dest     the image receiving the result, of the same size
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   * @param startCol first column of the block
+   * @param endCol   column after the last column of the block
+   * @param strategy how to apply the kernel
+   * @throws IllegalArgumentException if the strategy is SEPARABLE and the kernel is not
+   */
+  public void apply(Image img, Image dest, int startRow, int endRow, int startCol, int endCol,
+      Strategy strategy) {
+    switch (strategy) {
+      case SEPARABLE:
+        if (!isSeparable()) {
+          throw new IllegalArgumentException("Kernel is not separable");
+        }
+        applySeparable(img, dest, startRow, endRow, startCol, endCol);
+        break;
+      case FFT:
+        applyFft(img, dest, startRow, endRow, startCol, endCol);
+        break;
+      default:
+        applyDirect(img, dest, startRow, endRow, startCol, endCol);
+        break;
+    }
+  }
+
+  /**
+   * Return the kernel. The array is the one the engine uses and must not be changed.
+   */
+  double[][] getKernel() {
+    return kernel;
+  }
+
+  /**
+   * Return the vertical weights of a separable kernel, or null.
+   */
+  double[] getColumnWeights() {
+    return columnWeights;
+  }
+
+  /**
+   * Return the horizontal weights of a separable kernel, or null.
+   */
+  double[] getRowWeights() {
+    return rowWeights;
+  }
+
+  private void applyDirect(Image img, Image dest, int startRow, int endRow, int startCol,
+      int endCol) {
+    for (int tileCol = startCol; tileCol < endCol; tileCol += tileWidth) {
+      directTile(img, dest, startRow, endRow, tileCol, Math.min(tileCol + tileWidth, endCol));
+    }
+  }
+
+  /**
+   * Apply the kernel directly to the columns startCol to endCol of a band of rows. The source rows
+   * are read with a halo of half a kernel on each side, clamped to the image.
+   */
+  private void directTile(Image img, Image dest, int startRow, int endRow, int startCol,
+      int endCol) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int firstCol = Math.max(startCol - half, 0);
+    int span = Math.min(endCol + half, width) - firstCol;
+    int interiorStart = Math.min(Math.max(startCol, half), endCol);
+    int interiorEnd = Math.max(Math.min(endCol, width - half), interiorStart);
+
+    // Source rows under the kernel, unpacked into red, green and blue one after the other
+    int[][] ring = new int[size][3 * span];
+    int[] ringRow = new int[size];
+    Arrays.fill(ringRow, -1);
+    int[][] window = new int[size][];
+    int[] pixels = new int[span];
+    int[] line = new int[endCol - startCol];
+
+    for (int row = startRow; row < endRow; row++) {
+      for (int ki = 0; ki < size; ki++) {
+        int pixelRow = Math.min(Math.max(row + ki - half, 0), height - 1);
+        int slot = pixelRow % size;
+        if (ringRow[slot] != pixelRow) {
+          img.getRegion(pixelRow, firstCol, span, 1, pixels, 0);
+          unpack(pixels, ring[slot]);
+          ringRow[slot] = pixelRow;
+        }
+        window[ki] = ring[slot];
+      }
+
+      for (int col = startCol; col < interiorStart; col++) {
+        line[col - startCol] = directBorderPixel(window, col, firstCol, span, width);
+      }
+      for (int col = interiorStart; col < interiorEnd; col++) {
+        line[col - startCol] = directInteriorPixel(window, col - firstCol, span);
+      }
+      for (int col = interiorEnd; col < endCol; col++) {
+        line[col - startCol] = directBorderPixel(window, col, firstCol, span, width);
+      }
+      dest.setRegion(row, startCol, line.length, 1, line, 0);
+    }
+  }
+
+  private int directInteriorPixel(int[][] window, int index, int span) {
+    int newPixel = 0;
+    for (int channel = 0; channel < 3; channel++) {
+      int base = channel * span + index - half;
+      int value = 0;
+      for (int ki = 0; ki < size; ki++) {
+        int[] source = window[ki];
+        double[] weights = kernel[ki];
+        for (int kj = 0; kj < size; kj++) {
+          value += (int) (source[base + kj] * weights[kj]);
+        }
+      }
+      newPixel |= Math.min(Math.max(value, 0), 255) << (16 - 8 * channel);
+    }
+    return newPixel;
+  }
+
+  private int directBorderPixel(int[][] window, int col, int firstCol, int span, int width) {
+    int newPixel = 0;
+    for (int channel = 0; channel < 3; channel++) {
+      int offset = channel * span - firstCol;
+      int value = 0;
+      for (int ki = 0; ki < size; ki++) {
+        int[] source = window[ki];
+        double[] weights = kernel[ki];
+        for (int kj = 0; kj < size; kj++) {
+          int pixelCol = Math.min(Math.max(col + kj - half, 0), width - 1);
+          value += (int) (source[offset + pixelCol] * weights[kj]);
+        }
+      }
+      newPixel |= Math.min(Math.max(value, 0), 255) << (16 - 8 * channel);
+    }
+    return newPixel;
+  }
+
+  private void applySeparable(Image img, Image dest, int startRow, int endRow, int startCol,
+      int endCol) {
+    for (int tileCol = startCol; tileCol < endCol; tileCol += tileWidth) {
+      separableTile(img, dest, startRow, endRow, tileCol, Math.min(tileCol + tileWidth, endCol));
+    }
+  }
+
+  /**
+   * Apply a separable kernel to the columns startCol to endCol of a band of rows. The source rows
+   * are read with a halo of half a kernel on each side, clamped to the image.
+   */
+  private void separableTile(Image img, Image dest, int startRow, int endRow, int startCol,
+      int endCol) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int firstCol = Math.max(startCol - half, 0);
+    int span = Math.min(endCol + half, width) - firstCol;
+    int cols = endCol - startCol;
+
+    // Horizontally filtered source rows of the tile, red, green and blue one after the other
+    double[][] ring = new double[size][3 * cols];
+    int[] ringRow = new int[size];
+    Arrays.fill(ringRow, -1);
+    double[][] window = new double[size][];
+    int[] pixels = new int[span];
+    int[] channels = new int[3 * span];
+    int[] line = new int[cols];
+
+    for (int row = startRow; row < endRow; row++) {
+      for (int ki = 0; ki < size; ki++) {
+        int pixelRow = Math.min(Math.max(row + ki - half, 0), height - 1);
+        int slot = pixelRow % size;
+        if (ringRow[slot] != pixelRow) {
+          img.getRegion(pixelRow, firstCol, span, 1, pixels, 0);
+          unpack(pixels, channels);
+          filterRow(channels, firstCol, span, width, startCol, endCol, ring[slot]);
+          ringRow[slot] = pixelRow;
+        }
+        window[ki] = ring[slot];
+      }
+
+      for (int col = 0; col < cols; col++) {
+        int newPixel = 0;
+        for (int channel = 0; channel < 3; channel++) {
+          int index = channel * cols + col;
+          double value = 0;
+          for (int ki = 0; ki < size; ki++) {
+            value += columnWeights[ki] * window[ki][index];
+          }
+          newPixel |= Channels.clamp(value) << (16 - 8 * channel);
+        }
+        line[col] = newPixel;
+      }
+      dest.setRegion(row, startCol, cols, 1, line, 0);
+    }
+  }
+
+  /**
+   * Apply the kernel to the columns startCol to endCol of a band of rows by FFT. The block is cut
+   * into tiles, each tile is read with a margin of half a kernel on every side, transformed,
+   * multiplied by the transform of the kernel and transformed back. The wrap-around of the
+   * circular convolution only reaches the margin, which is dropped. Red and green are transformed
+   * together as the real and imaginary parts of one complex image, which is possible because the
+   * kernel is real.
+   */
+  private void applyFft(Image img, Image dest, int startRow, int endRow, int startCol,
+      int endCol) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int fftSize = fftSize(width, height);
+    int step = fftSize - 2 * half;
+    int points = fftSize * fftSize;
+
+    // The kernel flipped around its centre, wrapped to the corners, and transformed
+    double[] kernelRe = new double[points];
+    double[] kernelIm = new double[points];
+    for (int ki = 0; ki < size; ki++) {
+      for (int kj = 0; kj < size; kj++) {
+        int y = Math.floorMod(half - ki, fftSize);
+        int x = Math.floorMod(half - kj, fftSize);
+        kernelRe[y * fftSize + x] = kernel[ki][kj];
+      }
+    }
+    FFT.transform2D(kernelRe, kernelIm, fftSize, fftSize, false);
+
+    double[] redGreenRe = new double[points];
+    double[] redGreenIm = new double[points];
+    double[] blueRe = new double[points];
+    double[] blueIm = new double[points];
+    int[] pixels = new int[Math.min(width, fftSize)];
+    int[] tile = new int[step * step];
+
+    for (int tileRow = startRow; tileRow < endRow; tileRow += step) {
+      int rows = Math.min(step, endRow - tileRow);
+      for (int tileCol = startCol; tileCol < endCol; tileCol += step) {
+        int cols = Math.min(step, endCol - tileCol);
+        Arrays.fill(redGreenRe, 0);
+        Arrays.fill(redGreenIm, 0);
+        Arrays.fill(blueRe, 0);
+        Arrays.fill(blueIm, 0);
+        int firstCol = Math.max(tileCol - half, 0);
+        int lastCol = Math.min(tileCol + cols + half, width);
+        for (int y = 0; y < rows + 2 * half; y++) {
+          int pixelRow = Math.min(Math.max(tileRow + y - half, 0), height - 1);
+          img.getRegion(pixelRow, firstCol, lastCol - firstCol, 1, pixels, 0);
+          for (int x = 0; x < cols + 2 * half; x++) {
+            int pixelCol = Math.min(Math.max(tileCol + x - half, 0), width - 1);
+            int rgb = pixels[pixelCol - firstCol];
+            int i = y * fftSize + x;
+            redGreenRe[i] = (rgb >> 16) & 0xFF;
+            redGreenIm[i] = (rgb >> 8) & 0xFF;
+            blueRe[i] = rgb & 0xFF;
+          }
+        }
+
+        FFT.transform2D(redGreenRe, redGreenIm, fftSize, fftSize, false);
+        FFT.transform2D(blueRe, blueIm, fftSize, fftSize, false);
+        multiply(redGreenRe, redGreenIm, kernelRe, kernelIm);
+        multiply(blueRe, blueIm, kernelRe, kernelIm);
+        FFT.transform2D(redGreenRe, redGreenIm, fftSize, fftSize, true);
+        FFT.transform2D(blueRe, blueIm, fftSize, fftSize, true);
+
+        // The transforms leave errors of about 1e-12 either way, which the rounding slack absorbs.
+        // Because of it a channel can be 1 higher than the separable strategy gives for a sum less
+        // than 1e-6 below an integer.
+        for (int y = 0; y < rows; y++) {
+          for (int x = 0; x < cols; x++) {
+            int i = (y + half) * fftSize + x + half;
+            tile[y * cols + x] = (Channels.clamp(redGreenRe[i] + Channels.ROUNDING_SLACK) << 16)
+                | (Channels.clamp(redGreenIm[i] + Channels.ROUNDING_SLACK) << 8)
+                | Channels.clamp(blueRe[i] + Channels.ROUNDING_SLACK);
+          }
+        }
+        dest.setRegion(tileRow, tileCol, cols, rows, tile, 0);
+      }
+    }
+  }
+
+  /**
+   * Multiply complex values element by element, storing the products in the first array pair.
+   */
+  private static void multiply(double[] re, double[] im, double[] otherRe, double[] otherIm) {
+    for (int i = 0; i < re.length; i++) {
+      double r = re[i] * otherRe[i] - im[i] * otherIm[i];
+      im[i] = re[i] * otherIm[i] + im[i] * otherRe[i];
+      re[i] = r;
+    }
+  }
+
+  /**
+   * Return the edge length of the FFT tiles for an image of the given size. Tiles are at most
+   * FFT_TILE wide unless the kernel needs more, and no larger than the image needs.
+   */
+  private int fftSize(int width, int height) {
+    int wanted = Math.min(FFT_TILE, Math.max(width, height) + 2 * half);
+    return FFT.nextPowerOfTwo(Math.max(wanted, 2 * size));
+  }
+
+  /**
+   * Filter the columns startCol to endCol of an unpacked row horizontally with the row weights.
+   *
+   * @param channels red, green and blue of the columns firstCol to firstCol + span, one channel
+   *                 after the other
+   * @param firstCol the first column held in channels
+   * @param span     the number of columns held in channels
+   * @param width    the width of the image
+   * @param startCol the first column to filter
+   * @param endCol   the column after the last column to filter
+   * @param dest     receives the filtered channels of the columns startCol to endCol, one channel
+   *                 after the other
+   */
+  private void filterRow(int[] channels, int firstCol, int span, int width, int startCol,
+      int endCol, double[] dest) {
+    int cols = endCol - startCol;
+    int interiorStart = Math.min(Math.max(startCol, half), endCol);
+    int interiorEnd = Math.max(Math.min(endCol, width - half), interiorStart);
+    for (int channel = 0; channel < 3; channel++) {
+      int offset = channel * span - firstCol;
+      int destOffset = channel * cols - startCol;
+      for (int col = startCol; col < interiorStart; col++) {
+        dest[destOffset + col] = borderSum(channels, offset, col, width);
+      }
+      for (int col = interiorStart; col < interiorEnd; col++) {
+        int base = offset + col - half;
+        double sum = 0;
+        for (int kj = 0; kj < size; kj++) {
+          sum += rowWeights[kj] * channels[base + kj];
+        }
+        dest[destOffset + col] = sum;
+      }
+      for (int col = interiorEnd; col < endCol; col++) {
+        dest[destOffset + col] = borderSum(channels, offset, col, width);
+      }
+    }
+  }
+
+  private double borderSum(int[] channels, int offset, int col, int width) {
+    double sum = 0;
+    for (int kj = 0; kj < size; kj++) {
+      int pixelCol = Math.min(Math.max(col + kj - half, 0), width - 1);
+      sum += rowWeights[kj] * channels[offset + pixelCol];
+    }
+    return sum;
+  }
+
+  /**
+   * Split a row of packed pixels into its red, green and blue values, one channel after the other.
+   */
+  private static void unpack(int[] pixels, int[] dest) {
+    int width = pixels.length;
+    for (int col = 0; col < width; col++) {
+      int rgb = pixels[col];
+      dest[col] = (rgb >> 16) & 0xFF;
+      dest[width + col] = (rgb >> 8) & 0xFF;
+      dest[2 * width + col] = rgb & 0xFF;
+    }
+  }
+
+  /**
+   * Split a kernel into a column vector and a row vector whose outer product is the kernel.
+   *
+   * @param kernel the square kernel
+   * @return the column weights at index 0 and the row weights at index 1, or null if the kernel is
+   *         not the product of two vectors
+   */
+  private static double[][] separate(double[][] kernel) {
+    int size = kernel.length;
+    // Factor around the largest tap to keep the division well conditioned
+    int pivotRow = 0;
+    int pivotCol = 0;
+    double max = 0;
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (Math.abs(kernel[i][j]) > max) {
+          max = Math.abs(kernel[i][j]);
+          pivotRow = i;
+          pivotCol = j;
+        }
+      }
+    }
+    if (max == 0) {
+      return null;
+    }
+    double[] column = new double[size];
+    double[] row = kernel[pivotRow].clone();
+    for (int i = 0; i < size; i++) {
+      column[i] = kernel[i][pivotCol] / kernel[pivotRow][pivotCol];
+    }
+    for (int i = 0; i < size; i++) {
+      for (int j = 0; j < size; j++) {
+        if (Math.abs(column[i] * row[j] - kernel[i][j]) > TOLERANCE * max) {
+          return null;
+        }
+      }
+    }
+    return new double[][]{column, row};
+  }
+}
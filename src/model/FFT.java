@@ -0,0 +1,111 @@
+package model;
+
+/**
+ * In-place radix-2 fast Fourier transform of complex data held as separate real and imaginary
+ * arrays.
+ */
+final class FFT {
+
+  private FFT() {
+  }
+
+  /**
+   * Transform a two-dimensional array stored row by row. Both sizes must be powers of two.
+   *
+   * @param re      real parts
+   * @param im      imaginary parts
+   * @param width   number of columns
+   * @param height  number of rows
+   * @param inverse true for the inverse transform, which also divides by width * height
+   */
+  static void transform2D(double[] re, double[] im, int width, int height, boolean inverse) {
+    double[] rowRe = new double[width];
+    double[] rowIm = new double[width];
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(re, y * width, rowRe, 0, width);
+      System.arraycopy(im, y * width, rowIm, 0, width);
+      transform(rowRe, rowIm, inverse);
+      System.arraycopy(rowRe, 0, re, y * width, width);
+      System.arraycopy(rowIm, 0, im, y * width, width);
+    }
+    double[] colRe = new double[height];
+    double[] colIm = new double[height];
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        colRe[y] = re[y * width + x];
+        colIm[y] = im[y * width + x];
+      }
+      transform(colRe, colIm, inverse);
+      for (int y = 0; y < height; y++) {
+        re[y * width + x] = colRe[y];
+        im[y * width + x] = colIm[y];
+      }
+    }
+    if (inverse) {
+      double scale = 1.0 / ((double) width * height);
+      for (int i = 0; i < re.length; i++) {
+        re[i] *= scale;
+        im[i] *= scale;
+      }
+    }
+  }
+
+  /**
+   * Transform a one-dimensional array whose length is a power of two, without scaling.
+   *
+   * @param re      real parts
+   * @param im      imaginary parts
+   * @param inverse true for the inverse transform
+   */
+  static void transform(double[] re, double[] im, boolean inverse) {
+    int n = re.length;
+    // Bit reversal permutation
+    for (int i = 1, j = 0; i < n; i++) {
+      int bit = n >> 1;
+      for (; (j & bit) != 0; bit >>= 1) {
+        j ^= bit;
+      }
+      j ^= bit;
+      if (i < j) {
+        double t = re[i];
+        re[i] = re[j];
+        re[j] = t;
+        t = im[i];
+        im[i] = im[j];
+        im[j] = t;
+      }
+    }
+    for (int length = 2; length <= n; length <<= 1) {
+      double angle = 2 * Math.PI / length * (inverse ? 1 : -1);
+      double stepRe = Math.cos(angle);
+      double stepIm = Math.sin(angle);
+      for (int start = 0; start < n; start += length) {
+        double wRe = 1;
+        double wIm = 0;
+        for (int k = 0; k < length / 2; k++) {
+          int a = start + k;
+          int b = a + length / 2;
+          double tRe = re[b] * wRe - im[b] * wIm;
+          double tIm = re[b] * wIm + im[b] * wRe;
+          re[b] = re[a] - tRe;
+          im[b] = im[a] - tIm;
+          re[a] += tRe;
+          im[a] += tIm;
+          double next = wRe * stepRe - wIm * stepIm;
+          wIm = wRe * stepIm + wIm * stepRe;
+          wRe = next;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the smallest power of two that is at least n.
+   *
+   * @param n a positive number
+   * @return the power of two
+   */
+  static int nextPowerOfTwo(int n) {
+    return n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+  }
+}
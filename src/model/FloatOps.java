@@ -0,0 +1,349 @@
+package model;
+
+import java.util.Arrays;
+import model.image.FloatImage;
+
+/**
+ * Float versions of the ImageModel operations for FloatImage inputs. They work plane by plane on
+ * the primitive float arrays and neither clamp nor truncate, so a chain of operations loses no
+ * precision until the result is read as integers.
+ *
+ * <p>Every operation fills the rows startRow to endRow of its result, so that ImageModel can run
+ * it over bands of rows with forEachBand. The result is never the input, except for the
+ * operations documented as in place, which only read the pixels they write.
+ */
+final class FloatOps {
+
+  private FloatOps() {
+  }
+
+  /**
+   * Brighten a band of rows into an image of the same size, which can be the input itself.
+   *
+   * @param img       the image to brighten
+   * @param increment the value added to every channel
+   * @param result    the image receiving the result
+   * @param startRow  first row of the band
+   * @param endRow    row after the last row of the band
+   */
+  static void brighten(FloatImage img, float increment, FloatImage result, int startRow,
+      int endRow) {
+    int from = startRow * img.getWidth();
+    int to = endRow * img.getWidth();
+    for (int c = 0; c < 3; c++) {
+      float[] src = img.getPlane(c);
+      float[] dst = result.getPlane(c);
+      for (int i = from; i < to; i++) {
+        dst[i] = src[i] + increment;
+      }
+    }
+  }
+
+  /**
+   * Multiply every pixel of a band of rows by an affine colour matrix into an image of the same
+   * size, which can be the input itself: the three channels of a pixel are read before any of
+   * them is written.
+   *
+   * @param img      the image to transform
+   * @param matrix   the matrix, row c gives the weights of red, green and blue in channel c and
+   *                 its offset
+   * @param result   the image receiving the result
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  static void matrix(FloatImage img, double[][] matrix, FloatImage result, int startRow,
+      int endRow) {
+    float[] m = new float[12];
+    for (int c = 0; c < 3; c++) {
+      for (int k = 0; k < 4; k++) {
+        m[4 * c + k] = (float) matrix[c][k];
+      }
+    }
+    float[] r = img.getPlane(0);
+    float[] g = img.getPlane(1);
+    float[] b = img.getPlane(2);
+    float[] dr = result.getPlane(0);
+    float[] dg = result.getPlane(1);
+    float[] db = result.getPlane(2);
+    int to = endRow * img.getWidth();
+    for (int i = startRow * img.getWidth(); i < to; i++) {
+      float red = r[i];
+      float green = g[i];
+      float blue = b[i];
+      dr[i] = m[0] * red + m[1] * green + m[2] * blue + m[3];
+      dg[i] = m[4] * red + m[5] * green + m[6] * blue + m[7];
+      db[i] = m[8] * red + m[9] * green + m[10] * blue + m[11];
+    }
+  }
+
+  static void value(FloatImage img, FloatImage result, int startRow, int endRow) {
+    float[] r = img.getPlane(0);
+    float[] g = img.getPlane(1);
+    float[] b = img.getPlane(2);
+    float[] dr = result.getPlane(0);
+    float[] dg = result.getPlane(1);
+    float[] db = result.getPlane(2);
+    int to = endRow * img.getWidth();
+    for (int i = startRow * img.getWidth(); i < to; i++) {
+      float value = Math.max(r[i], Math.max(g[i], b[i]));
+      dr[i] = value;
+      dg[i] = value;
+      db[i] = value;
+    }
+  }
+
+  static void intensity(FloatImage img, FloatImage result, int startRow, int endRow) {
+    float[] r = img.getPlane(0);
+    float[] g = img.getPlane(1);
+    float[] b = img.getPlane(2);
+    float[] dr = result.getPlane(0);
+    float[] dg = result.getPlane(1);
+    float[] db = result.getPlane(2);
+    int to = endRow * img.getWidth();
+    for (int i = startRow * img.getWidth(); i < to; i++) {
+      float intensity = (r[i] + g[i] + b[i]) / 3;
+      dr[i] = intensity;
+      dg[i] = intensity;
+      db[i] = intensity;
+    }
+  }
+
+  static void component(FloatImage img, int channel, FloatImage result, int startRow,
+      int endRow) {
+    int from = startRow * img.getWidth();
+    int length = endRow * img.getWidth() - from;
+    float[] src = img.getPlane(channel);
+    for (int c = 0; c < 3; c++) {
+      System.arraycopy(src, from, result.getPlane(c), from, length);
+    }
+  }
+
+  /**
+   * Check that three images can be combined into one.
+   *
+   * @param red   image providing the red channel
+   * @param green image providing the green channel
+   * @param blue  image providing the blue channel
+   * @throws IllegalArgumentException if the images do not have the same size
+   */
+  static void checkCombine(FloatImage red, FloatImage green, FloatImage blue) {
+    int width = red.getWidth();
+    int height = red.getHeight();
+    if (width != green.getWidth() || width != blue.getWidth()
+        || height != green.getHeight() || height != blue.getHeight()) {
+      throw new IllegalArgumentException("All the color images must have the same size");
+    }
+  }
+
+  static void combine(FloatImage red, FloatImage green, FloatImage blue, FloatImage result,
+      int startRow, int endRow) {
+    int from = startRow * red.getWidth();
+    int length = endRow * red.getWidth() - from;
+    FloatImage[] sources = {red, green, blue};
+    for (int c = 0; c < 3; c++) {
+      System.arraycopy(sources[c].getPlane(c), from, result.getPlane(c), from, length);
+    }
+  }
+
+  static void flip(FloatImage img, boolean horizontal, boolean vertical, FloatImage result,
+      int startRow, int endRow) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    for (int c = 0; c < 3; c++) {
+      float[] src = img.getPlane(c);
+      float[] dst = result.getPlane(c);
+      for (int row = startRow; row < endRow; row++) {
+        int from = (vertical ? height - 1 - row : row) * width;
+        int to = row * width;
+        if (horizontal) {
+          for (int col = 0; col < width; col++) {
+            dst[to + col] = src[from + width - 1 - col];
+          }
+        } else {
+          System.arraycopy(src, from, dst, to, width);
+        }
+      }
+    }
+  }
+
+  /**
+   * Mirror the columns of a band of rows in place by swapping mirrored pixels, without a copy.
+   *
+   * @param img      the image to flip
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  static void mirrorRows(FloatImage img, int startRow, int endRow) {
+    int width = img.getWidth();
+    for (int c = 0; c < 3; c++) {
+      float[] plane = img.getPlane(c);
+      for (int row = startRow; row < endRow; row++) {
+        for (int left = row * width, right = left + width - 1; left < right; left++, right--) {
+          float value = plane[left];
+          plane[left] = plane[right];
+          plane[right] = value;
+        }
+      }
+    }
+  }
+
+  /**
+   * Swap a band of rows of the top half of an image with the mirrored rows of the bottom half in
+   * place.
+   *
+   * @param img      the image to flip
+   * @param startRow first row of the band, in the top half
+   * @param endRow   row after the last row of the band, at most half the height
+   */
+  static void swapRows(FloatImage img, int startRow, int endRow) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    float[] line = new float[width];
+    for (int c = 0; c < 3; c++) {
+      float[] plane = img.getPlane(c);
+      for (int top = startRow; top < endRow; top++) {
+        int bottom = height - 1 - top;
+        System.arraycopy(plane, top * width, line, 0, width);
+        System.arraycopy(plane, bottom * width, plane, top * width, width);
+        System.arraycopy(line, 0, plane, bottom * width, width);
+      }
+    }
+  }
+
+  /**
+   * Adjust the levels of a band of rows into an image of the same size, which can be the input
+   * itself.
+   *
+   * @param img      the image to adjust
+   * @param black    the black point
+   * @param mid      the mid point
+   * @param white    the white point
+   * @param result   the image receiving the result
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  static void levels(FloatImage img, int black, int mid, int white, FloatImage result,
+      int startRow, int endRow) {
+    float scBm = 128f / (mid - black);
+    float scMw = (255f - 128) / (white - mid);
+    int from = startRow * img.getWidth();
+    int to = endRow * img.getWidth();
+    for (int c = 0; c < 3; c++) {
+      float[] src = img.getPlane(c);
+      float[] dst = result.getPlane(c);
+      for (int i = from; i < to; i++) {
+        float value = src[i];
+        if (value < black) {
+          dst[i] = 0;
+        } else if (value > white) {
+          dst[i] = 255;
+        } else if (value <= mid) {
+          dst[i] = (value - black) * scBm;
+        } else {
+          dst[i] = 128 + (value - mid) * scMw;
+        }
+      }
+    }
+  }
+
+  /**
+   * Convolve a band of rows of every plane with a square kernel, pixels outside the image repeat
+   * the nearest edge.
+   *
+   * @param img      the image to filter
+   * @param kernel   the square kernel of odd size
+   * @param result   the image receiving the result, zero in the band
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  static void convolve(FloatImage img, double[][] kernel, FloatImage result, int startRow,
+      int endRow) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int size = kernel.length;
+    int half = size / 2;
+    int[][] cols = clampedColumns(width, size);
+    for (int c = 0; c < 3; c++) {
+      float[] src = img.getPlane(c);
+      float[] dst = result.getPlane(c);
+      for (int row = startRow; row < endRow; row++) {
+        int out = row * width;
+        for (int ki = 0; ki < size; ki++) {
+          int in = Math.min(Math.max(row + ki - half, 0), height - 1) * width;
+          for (int kj = 0; kj < size; kj++) {
+            float weight = (float) kernel[ki][kj];
+            int[] col = cols[kj];
+            for (int x = 0; x < width; x++) {
+              dst[out + x] += weight * src[in + col[x]];
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Convolve a band of rows of every plane with the kernel that is the outer product of column
+   * and row, as a horizontal pass over the rows the band reaches followed by a vertical pass.
+   * Pixels outside the image repeat the nearest edge.
+   *
+   * @param img      the image to filter
+   * @param column   the vertical weights
+   * @param row      the horizontal weights
+   * @param result   the image receiving the result, zero in the band
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  static void convolveSeparable(FloatImage img, double[] column, double[] row, FloatImage result,
+      int startRow, int endRow) {
+    int width = img.getWidth();
+    int height = img.getHeight();
+    int size = column.length;
+    int half = size / 2;
+    int top = Math.max(startRow - half, 0);
+    int bottom = Math.min(endRow + half, height);
+    float[] pass = new float[(bottom - top) * width];
+    int[][] cols = clampedColumns(width, size);
+    for (int c = 0; c < 3; c++) {
+      float[] src = img.getPlane(c);
+      float[] dst = result.getPlane(c);
+      Arrays.fill(pass, 0);
+      for (int y = top; y < bottom; y++) {
+        int in = y * width;
+        int out = (y - top) * width;
+        for (int kj = 0; kj < size; kj++) {
+          float weight = (float) row[kj];
+          int[] col = cols[kj];
+          for (int x = 0; x < width; x++) {
+            pass[out + x] += weight * src[in + col[x]];
+          }
+        }
+      }
+      for (int y = startRow; y < endRow; y++) {
+        int out = y * width;
+        for (int ki = 0; ki < size; ki++) {
+          float weight = (float) column[ki];
+          int in = (Math.min(Math.max(y + ki - half, 0), height - 1) - top) * width;
+          for (int x = 0; x < width; x++) {
+            dst[out + x] += weight * pass[in + x];
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Return for every tap of a kernel row the column each column reads, clamped to the edge, so
+   * the inner loops only read the plane.
+   */
+  private static int[][] clampedColumns(int width, int size) {
+    int half = size / 2;
+    int[][] cols = new int[size][width];
+    for (int kj = 0; kj < size; kj++) {
+      for (int col = 0; col < width; col++) {
+        cols[kj][col] = Math.min(Math.max(col + kj - half, 0), width - 1);
+      }
+    }
+    return cols;
+  }
+}
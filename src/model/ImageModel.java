@@ -4,17 +4,73 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import model.image.ChannelImage;
+import model.image.ColorMatrixImage;
+import model.image.FlippedImage;
+import model.image.FloatImage;
 import model.image.Image;
+import model.image.ImageFactory;
+import model.image.ImagePool;
+import model.image.LazyImage;
+import model.image.PixelKernels;
+import model.image.PlanarImage;
+import model.image.PointwiseImage;
 import model.image.RGBImage;
-import model.image.SimpleImage;
+import model.image.TiledImage;
 import utils.ImageTransformer;
 
 /**
  * ImageModel implemented ImgModel which provides various image manipulation methods such as
- * loading, saving, flipping, and applying filters like blur, sepia, and sharpen.
+ * loading, saving, flipping, and applying filters like blur, sepia, and sharpen. Operations on a
+ * FloatImage return a FloatImage computed in float without clamping, operations that have no float
+ * version read it as integers.
  */
 public class ImageModel implements ImgModel {
 
+  private static final double[][] LUMA =
+      {{0.299, 0.587, 0.114}, {0.299, 0.587, 0.114}, {0.299, 0.587, 0.114}};
+
+  private static final double[][] SEPIA =
+      {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+
+  private static final ConvolutionEngine BLUR = new ConvolutionEngine(
+      new double[][]{{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}});
+
+  private static final ConvolutionEngine SHARPEN = new ConvolutionEngine(
+      new double[][]{{-0.125, -0.125, -0.125, -0.125, -0.125},
+          {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, 0.25, 1, 0.25, -0.125},
+          {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, -0.125, -0.125, -0.125, -0.125}});
+
+  /**
+   * Work done on a band of rows, from startRow inclusive to endRow exclusive.
+   */
+  @FunctionalInterface
+  protected interface RowBand {
+
+    /**
+     * Process the rows of the band.
+     *
+     * @param startRow first row of the band
+     * @param endRow   row after the last row of the band
+     */
+    void run(int startRow, int endRow);
+  }
+
+  /**
+   * Run a task over the rows 0 to height. ImageModel runs it as a single band on the calling
+   * thread. Subclasses may split the rows into bands and run them concurrently, so a task must only
+   * write the rows of its own band and keep its buffers local to the call.
+   *
+   * @param height number of rows
+   * @param task   the work to do on each band
+   */
+  protected void forEachBand(int height, RowBand task) {
+    task.run(0, height);
+  }
+
   @Override
   public RGBImage splitImage(Image image) {
     if (image == null) {
@@ -23,20 +79,49 @@ public class ImageModel implements ImgModel {
     return new RGBImage(image.getWidth(), image.getHeight());
   }
 
+  @Override
+  public List<Image> splitChannels(Image image) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (image instanceof FloatImage) {
+      return List.of(component(image, 0), component(image, 1), component(image, 2));
+    }
+    return List.of(PlanarImage.splitChannels(image));
+  }
+
   @Override
   public Image combineImage(Image red, Image green, Image blue) {
     if (red == null || green == null || blue == null) {
       throw new IllegalArgumentException("None of the color images can be null");
     }
-    Image result = new SimpleImage(red.getWidth(), red.getHeight());
+    if (red instanceof FloatImage && green instanceof FloatImage && blue instanceof FloatImage) {
+      FloatImage r = (FloatImage) red;
+      FloatImage g = (FloatImage) green;
+      FloatImage b = (FloatImage) blue;
+      FloatOps.checkCombine(r, g, b);
+      FloatImage result = new FloatImage(r.getWidth(), r.getHeight());
+      forEachBand(r.getHeight(), (start, end) -> FloatOps.combine(r, g, b, result, start, end));
+      return result;
+    }
+    if (red instanceof PlanarImage || green instanceof PlanarImage
+        || blue instanceof PlanarImage) {
+      // Share the planes of the planar inputs and copy only the channels of the others
+      return PlanarImage.combine(red, green, blue);
+    }
+    Image result = ImageFactory.createLike(red);
+    int width = red.getWidth();
+    int[] redRow = new int[width];
+    int[] greenRow = new int[width];
+    int[] blueRow = new int[width];
     for (int row = 0; row < red.getHeight(); row++) {
-      for (int col = 0; col < red.getWidth(); col++) {
-        int r = red.getPixel(row, col)[0];
-        int g = green.getPixel(row, col)[1];
-        int b = blue.getPixel(row, col)[2];
-        int[] rgb = {r, g, b};
-        result.setPixel(row, col, rgb);
+      red.getRow(row, redRow);
+      green.getRow(row, greenRow);
+      blue.getRow(row, blueRow);
+      for (int col = 0; col < width; col++) {
+        redRow[col] = (redRow[col] & 0xFF0000) | (greenRow[col] & 0xFF00) | (blueRow[col] & 0xFF);
       }
+      result.setRow(row, redRow);
     }
     return result;
   }
@@ -46,13 +131,10 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        result.setPixel(row, col, img.getPixel(row, img.getWidth() - 1 - col));
-      }
+    if (img instanceof FloatImage) {
+      return floatFlip((FloatImage) img, true, false);
     }
-    return result;
+    return FlippedImage.of(img, true, false);
   }
 
   @Override
@@ -60,12 +142,24 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        result.setPixel(img.getHeight() - 1 - row, col, img.getPixel(row, col));
-      }
+    if (img instanceof FloatImage) {
+      return floatFlip((FloatImage) img, false, true);
     }
+    return FlippedImage.of(img, false, true);
+  }
+
+  /**
+   * Helper function for the flips of a float image, which are copied in bands of rows.
+   *
+   * @param img        the image to flip
+   * @param horizontal whether to mirror the columns
+   * @param vertical   whether to mirror the rows
+   * @return the flipped image
+   */
+  private FloatImage floatFlip(FloatImage img, boolean horizontal, boolean vertical) {
+    FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+    forEachBand(img.getHeight(),
+        (start, end) -> FloatOps.flip(img, horizontal, vertical, result, start, end));
     return result;
   }
 
@@ -74,135 +168,161 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        int[] pixel = img.getPixel(row, col);
-        int[] newPixel = new int[3];
-        for (int i = 0; i < 3; i++) {
-          newPixel[i] = Math.min(255, Math.max(0, pixel[i] + increment));
-        }
-        result.setPixel(row, col, newPixel);
-      }
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.brighten(source, increment, result, start, end));
+      return result;
     }
-    return result;
+    return PointwiseImage.of(img, brightenTable(increment));
+  }
+
+  private int[] brightenTable(int increment) {
+    int[] table = new int[256];
+    for (int value = 0; value < 256; value++) {
+      table[value] = clamp(value + increment);
+    }
+    return table;
   }
 
   @Override
   public Image toGreyscale(Image img) {
+    return colorMatrix(img, LUMA);
+  }
+
+  /**
+   * Helper function for blur, sharpen, gaussianBlur and convolve. The engine picks its strategy
+   * once for the whole image and then filters the rows in bands, a float image is filtered in
+   * float.
+   *
+   * @param img    the image to apply the filter
+   * @param engine the engine holding the filter kernel
+   * @return the processed image
+   */
+  private Image filterImageByKernel(Image img, ConvolutionEngine engine) {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        int[] pixel = img.getPixel(row, col);
-        int grey = (int) (pixel[0] * 0.299 + pixel[1] * 0.587 + pixel[2] * 0.114);
-        int[] newPixel = {grey, grey, grey};
-        result.setPixel(row, col, newPixel);
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+      if (engine.isSeparable()) {
+        double[] column = engine.getColumnWeights();
+        double[] row = engine.getRowWeights();
+        forEachBand(img.getHeight(), (start, end) ->
+            FloatOps.convolveSeparable(source, column, row, result, start, end));
+      } else {
+        double[][] kernel = engine.getKernel();
+        forEachBand(img.getHeight(),
+            (start, end) -> FloatOps.convolve(source, kernel, result, start, end));
       }
+      return result;
     }
+    Image result = ImageFactory.createLike(img);
+    ConvolutionEngine.Strategy strategy = strategyFor(engine, img.getWidth(), img.getHeight());
+    forEachBand(img.getHeight(), (start, end) -> engine.apply(img, result, start, end, strategy));
     return result;
   }
 
-
   /**
-   * Helper function for blur and sharpen.
+   * Return the strategy to filter an area of the given size with. The built-in blur keeps the
+   * direct strategy, which truncates every product like the original filter, and its 3x3 kernel
+   * gains nothing from two passes. Other engines pick the cheapest strategy.
    *
-   * @param img        the image to apply the filter
-   * @param kernel     the filter kernel
-   * @param kernelSize the size of the kernel
-   * @return the processed image
+   * @param engine the engine holding the filter kernel
+   * @param width  width of the area to filter
+   * @param height height of the area to filter
+   * @return the strategy to use
    */
-  private Image filterImageByKernel(Image img, double[][] kernel, int kernelSize) {
-    if (img == null) {
-      throw new IllegalArgumentException("Image cannot be null");
-    }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-    int halfKernel = kernelSize / 2;
-
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        int[] newPixel = new int[3];
-
-        for (int i = 0; i < 3; i++) {
-          int pixelValue = 0;
+  private static ConvolutionEngine.Strategy strategyFor(ConvolutionEngine engine, int width,
+      int height) {
+    return engine == BLUR ? ConvolutionEngine.Strategy.DIRECT
+        : engine.chooseStrategy(width, height);
+  }
 
-          for (int ki = 0; ki < kernelSize; ki++) {
-            for (int kj = 0; kj < kernelSize; kj++) {
-              int pixelRow = Math.min(Math.max(row + ki - halfKernel, 0), img.getHeight() - 1);
-              int pixelCol = Math.min(Math.max(col + kj - halfKernel, 0), img.getWidth() - 1);
+  @Override
+  public Image blur(Image img) {
+    return filterImageByKernel(img, BLUR);
+  }
 
-              pixelValue += (int) (img.getPixel(pixelRow, pixelCol)[i] * kernel[ki][kj]);
-            }
-          }
+  @Override
+  public Image sharpen(Image img) {
+    return filterImageByKernel(img, SHARPEN);
+  }
 
-          newPixel[i] = Math.min(Math.max(pixelValue, 0), 255);
-        }
+  @Override
+  public Image boxBlur(Image img, int radius) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    SummedAreaTable.checkRadius(radius, img.getWidth(), img.getHeight());
+    SummedAreaTable table = new SummedAreaTable(img);
+    Image result = ImageFactory.createLike(img);
+    forEachBand(img.getHeight(), (start, end) -> table.boxBlur(result, radius, start, end));
+    return result;
+  }
 
-        result.setPixel(row, col, newPixel);
+  @Override
+  public Image blur(Image img, int radius) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius cannot be negative");
+    }
+    // Three box blurs whose variances add up to that of a Gaussian reaching radius at 3 sigma
+    Image result = img;
+    for (int boxRadius : SummedAreaTable.gaussianBoxRadii(radius / 3.0, 3)) {
+      Image previous = result;
+      result = boxBlur(previous, boxRadius);
+      if (previous != img) {
+        ImagePool.getShared().release(previous, List.of(result));
       }
     }
     return result;
   }
 
   @Override
-  public Image blur(Image img) {
-    double[][] kernel = {{0.0625, 0.125, 0.0625}, {0.125, 0.25, 0.125}, {0.0625, 0.125, 0.0625}};
-    return filterImageByKernel(img, kernel, 3);
+  public Image gaussianBlur(Image img, double sigma) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    return filterImageByKernel(img, ConvolutionEngine.gaussian(sigma));
   }
 
   @Override
-  public Image sharpen(Image img) {
-    double[][] kernel = {{-0.125, -0.125, -0.125, -0.125, -0.125},
-        {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, 0.25, 1, 0.25, -0.125},
-        {-0.125, 0.25, 0.25, 0.25, -0.125}, {-0.125, -0.125, -0.125, -0.125, -0.125}};
-    return filterImageByKernel(img, kernel, 5);
+  public Image convolve(Image img, double[][] kernel) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    return filterImageByKernel(img, new ConvolutionEngine(kernel));
   }
 
-  /**
-   * Helper function for sepia and luma.
-   *
-   * @param img    the image to apply this effect
-   * @param filter the filter
-   * @return the processed image
-   */
-  private Image sepiaOrLuma(Image img, double[][] filter) {
+  @Override
+  public Image colorMatrix(Image img, double[][] matrix) {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        int[] rgb = img.getPixel(row, col);
-        int[] newColor = new int[3];
-        newColor[0] = (int) Math.min(
-            Math.max((filter[0][0] * rgb[0] + filter[0][1] * rgb[1] + filter[0][2] * rgb[2]), 0),
-            255);
-        newColor[1] = (int) Math.min(
-            Math.max((filter[1][0] * rgb[0] + filter[1][1] * rgb[1] + filter[1][2] * rgb[2]), 0),
-            255);
-        newColor[2] = (int) Math.min(
-            Math.max((filter[2][0] * rgb[0] + filter[2][1] * rgb[1] + filter[2][2] * rgb[2]), 0),
-            255);
-        result.setPixel(row, col, newColor);
-      }
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      double[][] affine = ColorMatrixImage.affine(matrix);
+      FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.matrix(source, affine, result, start, end));
+      return result;
     }
-
-    return result;
+    return ColorMatrixImage.of(img, matrix);
   }
 
   @Override
   public Image luma(Image img) {
-    return sepiaOrLuma(img,
-        new double[][]{{0.299, 0.587, 0.114}, {0.299, 0.587, 0.114}, {0.299, 0.587, 0.114}});
+    return colorMatrix(img, LUMA);
   }
 
   @Override
   public Image sepia(Image img) {
-    return sepiaOrLuma(img,
-        new double[][]{{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}});
+    return colorMatrix(img, SEPIA);
   }
 
   @Override
@@ -210,17 +330,22 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        int[] rgb = img.getPixel(row, col);
-        int value = Math.max(rgb[0], Math.max(rgb[1], rgb[2]));
-
-        int[] grayscale = {value, value, value};
-        result.setPixel(row, col, grayscale);
-      }
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+      forEachBand(img.getHeight(), (start, end) -> FloatOps.value(source, result, start, end));
+      return result;
     }
+    Image result = ImageFactory.createGrey(img, img.getWidth(), img.getHeight());
+
+    forEachBand(img.getHeight(), (start, end) -> {
+      int[] line = new int[img.getWidth()];
+      for (int row = start; row < end; row++) {
+        img.getRow(row, line);
+        PixelKernels.value(line);
+        result.setRow(row, line);
+      }
+    });
 
     return result;
   }
@@ -230,17 +355,23 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    Image result = new SimpleImage(img.getWidth(), img.getHeight());
-
-    for (int row = 0; row < img.getHeight(); row++) {
-      for (int col = 0; col < img.getWidth(); col++) {
-        int[] rgb = img.getPixel(row, col);
-        int intensity = (rgb[0] + rgb[1] + rgb[2]) / 3;
-
-        int[] grayscale = {intensity, intensity, intensity};
-        result.setPixel(row, col, grayscale);
-      }
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.intensity(source, result, start, end));
+      return result;
     }
+    Image result = ImageFactory.createGrey(img, img.getWidth(), img.getHeight());
+
+    forEachBand(img.getHeight(), (start, end) -> {
+      int[] line = new int[img.getWidth()];
+      for (int row = start; row < end; row++) {
+        img.getRow(row, line);
+        PixelKernels.intensity(line);
+        result.setRow(row, line);
+      }
+    });
 
     return result;
   }
@@ -250,8 +381,7 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    RGBImage rgbImage = new RGBImage(img.getWidth(), img.getHeight());
-    return rgbImage.redComponent(img);
+    return component(img, 0);
   }
 
   @Override
@@ -259,8 +389,7 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    RGBImage rgbImage = new RGBImage(img.getWidth(), img.getHeight());
-    return rgbImage.greenComponent(img);
+    return component(img, 1);
   }
 
   @Override
@@ -268,45 +397,303 @@ public class ImageModel implements ImgModel {
     if (img == null) {
       throw new IllegalArgumentException("Image cannot be null");
     }
-    RGBImage rgbImage = new RGBImage(img.getWidth(), img.getHeight());
-    return rgbImage.blueComponent(img);
+    return component(img, 2);
+  }
+
+  /**
+   * Helper function for the red, green and blue components. A float image gets a float copy of
+   * the channel, a planar image shares its channel plane, a colour matrix view gets the channel
+   * added to its matrices, any other image gets a lazy view of the channel.
+   *
+   * @param img     the image to extract the channel from
+   * @param channel the channel to extract
+   * @return a greyscale image of the channel
+   */
+  private Image component(Image img, int channel) {
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      FloatImage result = new FloatImage(img.getWidth(), img.getHeight());
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.component(source, channel, result, start, end));
+      return result;
+    }
+    if (img instanceof PlanarImage) {
+      return PlanarImage.fromChannel(img, channel);
+    }
+    if (img instanceof ColorMatrixImage && !((ColorMatrixImage) img).isMaterialized()) {
+      double[][] matrix = new double[3][3];
+      for (int c = 0; c < 3; c++) {
+        matrix[c][channel] = 1;
+      }
+      return ColorMatrixImage.of(img, matrix);
+    }
+    return new ChannelImage(img, channel);
   }
 
   @Override
   public Image splitView(Image image, Image processedImage, int splitPercentage) {
-    if (splitPercentage < 0 || splitPercentage > 100) {
-      throw new IllegalArgumentException("Split percentage should be in the range of (0-100)");
-    }
-    int splitPoint = (image.getWidth() * splitPercentage) / 100;
-    Image result = new SimpleImage(image.getWidth(), image.getHeight());
-
-    for (int hor = 0; hor < image.getHeight(); hor++) {
-      for (int ver = 0; ver < image.getWidth(); ver++) {
-        if (ver < splitPoint) {
-          result.setPixel(hor, ver, processedImage.getPixel(hor, ver));
-        } else {
-          result.setPixel(hor, ver, image.getPixel(hor, ver));
+    return inRegion(image, Region.split(image, splitPercentage), processedImage);
+  }
+
+  @Override
+  public Image brighten(Image img, int increment, Region region) {
+    return inRegion(img, region, brighten(img, increment));
+  }
+
+  @Override
+  public Image toGreyscale(Image img, Region region) {
+    return inRegion(img, region, toGreyscale(img));
+  }
+
+  @Override
+  public Image blur(Image img, Region region) {
+    return filterRegionByKernel(img, BLUR, region);
+  }
+
+  @Override
+  public Image boxBlur(Image img, int radius, Region region) {
+    checkRegion(img, region);
+    SummedAreaTable.checkRadius(radius, img.getWidth(), img.getHeight());
+    return blurCropInRegion(img, region, radius, crop -> boxBlur(crop, radius));
+  }
+
+  @Override
+  public Image blur(Image img, int radius, Region region) {
+    checkRegion(img, region);
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius cannot be negative");
+    }
+    int halo = 0;
+    for (int boxRadius : SummedAreaTable.gaussianBoxRadii(radius / 3.0, 3)) {
+      SummedAreaTable.checkRadius(boxRadius, img.getWidth(), img.getHeight());
+      halo += boxRadius;
+    }
+    return blurCropInRegion(img, region, halo, crop -> blur(crop, radius));
+  }
+
+  @Override
+  public Image sepia(Image img, Region region) {
+    return inRegion(img, region, sepia(img));
+  }
+
+  @Override
+  public Image sharpen(Image img, Region region) {
+    return filterRegionByKernel(img, SHARPEN, region);
+  }
+
+  @Override
+  public Image gaussianBlur(Image img, double sigma, Region region) {
+    return filterRegionByKernel(img, ConvolutionEngine.gaussian(sigma), region);
+  }
+
+  @Override
+  public Image convolve(Image img, double[][] kernel, Region region) {
+    return filterRegionByKernel(img, new ConvolutionEngine(kernel), region);
+  }
+
+  @Override
+  public Image colorMatrix(Image img, double[][] matrix, Region region) {
+    return inRegion(img, region, colorMatrix(img, matrix));
+  }
+
+  @Override
+  public Image value(Image img, Region region) {
+    if (img instanceof FloatImage) {
+      return inRegion(img, region, value(img));
+    }
+    return pixelKernelInRegion(img, region, PixelKernels::value);
+  }
+
+  @Override
+  public Image intensity(Image img, Region region) {
+    if (img instanceof FloatImage) {
+      return inRegion(img, region, intensity(img));
+    }
+    return pixelKernelInRegion(img, region, PixelKernels::intensity);
+  }
+
+  @Override
+  public Image luma(Image img, Region region) {
+    return inRegion(img, region, luma(img));
+  }
+
+  @Override
+  public Image adjustLevels(Image image, int blThresh, int mtPoint, int whPoint, Region region) {
+    return inRegion(image, region, adjustLevels(image, blThresh, mtPoint, whPoint));
+  }
+
+  @Override
+  public Image correctColor(Image image, Region region) {
+    return inRegion(image, region, correctColor(image));
+  }
+
+  /**
+   * Helper function for the operations on a region. Return a copy of an image whose pixels inside
+   * the region are taken from the full result of an operation. Only that part of the result is
+   * read, so a lazy view computes nothing outside the region.
+   *
+   * @param img    the image the operation was applied to
+   * @param region the pixels to take from the result
+   * @param view   the result of the operation, usually a lazy view of the image
+   * @return the image with the region processed
+   */
+  private Image inRegion(Image img, Region region, Image view) {
+    checkRegion(img, region);
+    Image result = copyOf(img);
+    int top = region.getRow();
+    int left = region.getCol();
+    int width = region.getWidth();
+    if (view instanceof FloatImage && result instanceof FloatImage) {
+      for (int c = 0; c < 3; c++) {
+        float[] from = ((FloatImage) view).getPlane(c);
+        float[] to = ((FloatImage) result).getPlane(c);
+        for (int row = top; row < top + region.getHeight(); row++) {
+          int offset = row * img.getWidth() + left;
+          System.arraycopy(from, offset, to, offset, width);
         }
       }
+      return result;
+    }
+    forEachBand(region.getHeight(), (start, end) -> {
+      int[] line = new int[width];
+      for (int row = top + start; row < top + end; row++) {
+        view.getRegion(row, left, width, 1, line, 0);
+        result.setRegion(row, left, width, 1, line, 0);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Helper function for the box blurs on a region. Blur a crop of the image holding the region and
+   * the pixels up to halo rows and columns around it, and copy the region back from the blurred
+   * crop. A box blur only averages pixels inside the image, so when the halo covers every box the
+   * region's pixels depend on, the result is the same as blurring the whole image.
+   *
+   * @param img    the image to blur
+   * @param region the pixels to blur
+   * @param halo   how far around a pixel the blur reads
+   * @param blur   the blur to apply to the crop
+   * @return the image with the region blurred
+   */
+  private Image blurCropInRegion(Image img, Region region, int halo, UnaryOperator<Image> blur) {
+    int top = Math.max(region.getRow() - halo, 0);
+    int left = Math.max(region.getCol() - halo, 0);
+    int bottom = (int) Math.min((long) region.getRow() + region.getHeight() + halo,
+        img.getHeight());
+    int right = (int) Math.min((long) region.getCol() + region.getWidth() + halo, img.getWidth());
+    int cropWidth = right - left;
+    Image crop = ImageFactory.createLike(img, cropWidth, bottom - top);
+    forEachBand(bottom - top, (start, end) -> {
+      int[] line = new int[cropWidth];
+      for (int row = start; row < end; row++) {
+        img.getRegion(top + row, left, cropWidth, 1, line, 0);
+        crop.setRow(row, line);
+      }
+    });
+    Image blurred = blur.apply(crop);
+    Image result = copyOf(img);
+    int width = region.getWidth();
+    forEachBand(region.getHeight(), (start, end) -> {
+      int[] line = new int[width];
+      for (int row = region.getRow() + start; row < region.getRow() + end; row++) {
+        blurred.getRegion(row - top, region.getCol() - left, width, 1, line, 0);
+        result.setRegion(row, region.getCol(), width, 1, line, 0);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Helper function for the kernel operations on a region. The engine picks its strategy for the
+   * size of the region and only filters its pixels, reading the pixels around it as needed.
+   *
+   * @param img    the image to apply the filter
+   * @param engine the engine holding the filter kernel
+   * @param region the pixels to filter
+   * @return the image with the region filtered
+   */
+  private Image filterRegionByKernel(Image img, ConvolutionEngine engine, Region region) {
+    if (img instanceof FloatImage) {
+      return inRegion(img, region, filterImageByKernel(img, engine));
+    }
+    checkRegion(img, region);
+    Image result = copyOf(img);
+    int top = region.getRow();
+    int left = region.getCol();
+    int right = left + region.getWidth();
+    ConvolutionEngine.Strategy strategy =
+        strategyFor(engine, region.getWidth(), region.getHeight());
+    forEachBand(region.getHeight(),
+        (start, end) -> engine.apply(img, result, top + start, top + end, left, right, strategy));
+    return result;
+  }
+
+  /**
+   * Helper function for value and intensity on a region, applying a pixel kernel to the part of
+   * each row inside the region.
+   *
+   * @param img    the image to convert
+   * @param region the pixels to convert
+   * @param kernel the kernel converting an array of pixels in place
+   * @return the image with the region converted
+   */
+  private Image pixelKernelInRegion(Image img, Region region, Consumer<int[]> kernel) {
+    checkRegion(img, region);
+    Image result = copyOf(img);
+    int top = region.getRow();
+    int left = region.getCol();
+    int width = region.getWidth();
+    forEachBand(region.getHeight(), (start, end) -> {
+      int[] line = new int[width];
+      for (int row = top + start; row < top + end; row++) {
+        img.getRegion(row, left, width, 1, line, 0);
+        kernel.accept(line);
+        result.setRegion(row, left, width, 1, line, 0);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Return a copy of an image to write the result of an operation on a region into. A tiled image
+   * shares its tiles with the copy until they are written, a float image is copied in float.
+   */
+  private Image copyOf(Image img) {
+    if (img instanceof TiledImage) {
+      return ((TiledImage) img).copy();
+    }
+    if (img instanceof FloatImage) {
+      return FloatImage.copyOf(img);
     }
+    Image result = ImageFactory.createLike(img);
+    forEachBand(img.getHeight(), (start, end) -> {
+      int[] line = new int[img.getWidth()];
+      for (int row = start; row < end; row++) {
+        img.getRow(row, line);
+        result.setRow(row, line);
+      }
+    });
     return result;
   }
 
+  private static void checkRegion(Image img, Region region) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (region == null) {
+      throw new IllegalArgumentException("Region cannot be null");
+    }
+    region.checkInside(img);
+  }
+
   @Override
   public Image correctColor(Image image) {
     // Analyze histogram to find meaningful peaks for each channel
     int[] rHist = new int[256];
     int[] gHist = new int[256];
     int[] bHist = new int[256];
-
-    for (int x = 0; x < image.getHeight(); x++) {
-      for (int y = 0; y < image.getWidth(); y++) {
-        int[] color = image.getPixel(x, y);
-        rHist[color[0]]++;
-        gHist[color[1]]++;
-        bHist[color[2]]++;
-      }
-    }
+    storeHistogram(image, rHist, gHist, bHist);
 
     // Ignore peaks at histogram extremities and find meaningful peaks
     int rPeak = findPeak(rHist, 10, 245);
@@ -316,19 +703,15 @@ public class ImageModel implements ImgModel {
     int avgPeak = (rPeak + gPeak + bPeak) / 3;
 
     // Offset channels to align peaks to the average peak
-    BufferedImage correctedImage = new BufferedImage(image.getWidth(), image.getHeight(),
-        BufferedImage.TYPE_INT_RGB);
-
-    for (int x = 0; x < image.getHeight(); x++) {
-      for (int y = 0; y < image.getWidth(); y++) {
-        int[] color = image.getPixel(x, y);
-        int red = clamp(color[0] + (avgPeak - rPeak));
-        int green = clamp(color[1] + (avgPeak - gPeak));
-        int blue = clamp(color[2] + (avgPeak - bPeak));
-        correctedImage.setRGB(y, x, new Color(red, green, blue).getRGB());
-      }
+    int[] red = new int[256];
+    int[] green = new int[256];
+    int[] blue = new int[256];
+    for (int value = 0; value < 256; value++) {
+      red[value] = clamp(value + (avgPeak - rPeak));
+      green[value] = clamp(value + (avgPeak - gPeak));
+      blue[value] = clamp(value + (avgPeak - bPeak));
     }
-    return ImageTransformer.transformBufferImageToImage(correctedImage);
+    return PointwiseImage.of(image, red, green, blue);
   }
 
   private int findPeak(int[] hist, int min, int max) {
@@ -380,14 +763,28 @@ public class ImageModel implements ImgModel {
    * @param bHist blue part of histogram.
    */
   private void storeHistogram(Image image, int[] rHist, int[] gHist, int[] bHist) {
-    for (int x = 0; x < image.getHeight(); x++) {
-      for (int y = 0; y < image.getWidth(); y++) {
-        int[] color = image.getPixel(x, y);
-        rHist[color[0]]++;
-        gHist[color[1]]++;
-        bHist[color[2]]++;
+    forEachBand(image.getHeight(), (start, end) -> {
+      // Count each band on its own, then add the counts to the shared histograms
+      int[] r = new int[256];
+      int[] g = new int[256];
+      int[] b = new int[256];
+      int[] line = new int[image.getWidth()];
+      for (int x = start; x < end; x++) {
+        image.getRow(x, line);
+        for (int color : line) {
+          r[(color >> 16) & 0xFF]++;
+          g[(color >> 8) & 0xFF]++;
+          b[color & 0xFF]++;
+        }
       }
-    }
+      synchronized (rHist) {
+        for (int i = 0; i < 256; i++) {
+          rHist[i] += r[i];
+          gHist[i] += g[i];
+          bHist[i] += b[i];
+        }
+      }
+    });
   }
 
   private void scaleHistogram(int height, int[] rHist, int[] gHist, int[] bHist) {
@@ -447,6 +844,21 @@ public class ImageModel implements ImgModel {
 
   @Override
   public Image adjustLevels(Image image, int blThresh, int mtPoint, int whPoint) {
+    int[] table = levelsTable(blThresh, mtPoint, whPoint);
+    if (image instanceof FloatImage) {
+      FloatImage source = (FloatImage) image;
+      FloatImage result = new FloatImage(image.getWidth(), image.getHeight());
+      forEachBand(image.getHeight(), (start, end) ->
+          FloatOps.levels(source, blThresh, mtPoint, whPoint, result, start, end));
+      return result;
+    }
+    return PointwiseImage.of(image, table);
+  }
+
+  /**
+   * Check the levels-adjust points and return the new value of each channel value.
+   */
+  private int[] levelsTable(int blThresh, int mtPoint, int whPoint) {
 
     // Ensure compression percentage is valid
     if (blThresh < 0 || blThresh > 255) {
@@ -471,18 +883,11 @@ public class ImageModel implements ImgModel {
     double scBm = (double) 128 / (mtPoint - blThresh);
     double scMw = (double) (255 - 128) / (whPoint - mtPoint);
 
-    Image adjustedImage = new SimpleImage(image.getWidth(), image.getHeight());
-
-    for (int x = 0; x < image.getHeight(); x++) {
-      for (int y = 0; y < image.getWidth(); y++) {
-        int[] color = image.getPixel(x, y);
-        int red = adjustValue(color[0], blThresh, mtPoint, whPoint, scBm, scMw);
-        int green = adjustValue(color[1], blThresh, mtPoint, whPoint, scBm, scMw);
-        int blue = adjustValue(color[2], blThresh, mtPoint, whPoint, scBm, scMw);
-        adjustedImage.setPixel(x, y, new int[]{red, green, blue});
-      }
+    int[] table = new int[256];
+    for (int value = 0; value < 256; value++) {
+      table[value] = adjustValue(value, blThresh, mtPoint, whPoint, scBm, scMw);
     }
-    return adjustedImage;
+    return table;
   }
 
   private int adjustValue(int value, int blThresh, int mtPoint, int whPoint, double scBm,
@@ -519,13 +924,13 @@ public class ImageModel implements ImgModel {
     // Create a 3D array to hold the compressed data
     double[][][] compressedData = new double[3][newHeight][newWidth];
 
-    Image resizedImage = new SimpleImage(newWidth, newHeight);
+    Image resizedImage = ImageFactory.createLike(input, newWidth, newHeight);
 
     // Copy existing pixel data to resized image
+    int[] line = new int[originalWidth];
     for (int row = 0; row < originalHeight; row++) {
-      for (int col = 0; col < originalWidth; col++) {
-        resizedImage.setPixel(row, col, input.getPixel(row, col));
-      }
+      input.getRow(row, line);
+      resizedImage.setRegion(row, 0, originalWidth, 1, line, 0);
     }
 
     // Get channel data and apply Haar Transform
@@ -559,7 +964,7 @@ public class ImageModel implements ImgModel {
     }
 
     // Create a new image to hold the decompressed data
-    Image img = new SimpleImage(original.getWidth(), original.getHeight());
+    Image img = ImageFactory.createLike(original);
 
     // Decompress each color channel using the inverse Haar transform
     double[][] redChannel = invHaarWaveTransf2D(compressedData[0]);
@@ -567,13 +972,15 @@ public class ImageModel implements ImgModel {
     double[][] blueChannel = invHaarWaveTransf2D(compressedData[2]);
 
     // Set pixel values back to original size image
+    int[] line = new int[original.getWidth()];
     for (int row = 0; row < original.getHeight(); row++) {
-      for (int col = 0; col < original.getWidth(); col++) {
+      for (int col = 0; col < line.length; col++) {
         int r = (int) Math.min(Math.max(redChannel[row][col], 0), 255);
         int g = (int) Math.min(Math.max(greenChannel[row][col], 0), 255);
         int b = (int) Math.min(Math.max(blueChannel[row][col], 0), 255);
-        img.setPixel(row, col, new int[]{r, g, b});
+        line[col] = (r << 16) | (g << 8) | b;
       }
+      img.setRow(row, line);
     }
 
     return img;
@@ -583,11 +990,13 @@ public class ImageModel implements ImgModel {
     int width = image.getWidth();
     int height = image.getHeight();
     double[][] channelData = new double[height][width];
+    int shift = 16 - 8 * channel;
+    int[] line = new int[width];
 
     for (int x = 0; x < height; x++) {
+      image.getRow(x, line);
       for (int y = 0; y < width; y++) {
-        int[] rgb = image.getPixel(x, y);
-        channelData[x][y] = rgb[channel];
+        channelData[x][y] = (line[y] >> shift) & 0xFF;
       }
     }
     return channelData;
@@ -713,37 +1122,195 @@ public class ImageModel implements ImgModel {
       throw new IllegalArgumentException("New dimensions must be greater than zero");
     }
 
-    Image result = new SimpleImage(newWidth, newHeight);
+    Image result = ImageFactory.createLike(img, newWidth, newHeight);
     double xRatio = (double) img.getWidth() / newWidth;
     double yRatio = (double) img.getHeight() / newHeight;
 
-    for (int row = 0; row < newHeight; row++) {
-      for (int col = 0; col < newWidth; col++) {
-        double srcX = col * xRatio;
-        double srcY = row * yRatio;
-
-        int x1 = (int) Math.floor(srcX);
-        int y1 = (int) Math.floor(srcY);
-        int x2 = Math.min(x1 + 1, img.getWidth() - 1);
-        int y2 = Math.min(y1 + 1, img.getHeight() - 1);
-
-        double dx = srcX - x1;
-        double dy = srcY - y1;
-
-        int[] c11 = img.getPixel(y1, x1);
-        int[] c12 = img.getPixel(y2, x1);
-        int[] c21 = img.getPixel(y1, x2);
-        int[] c22 = img.getPixel(y2, x2);
-
-        int[] newPixel = new int[3];
-        for (int i = 0; i < 3; i++) {
-          double c1 = c11[i] * (1 - dy) + c12[i] * dy;
-          double c2 = c21[i] * (1 - dy) + c22[i] * dy;
-          newPixel[i] = (int) (c1 * (1 - dx) + c2 * dx);
+    forEachBand(newHeight, (start, end) -> {
+      int[] line = new int[newWidth];
+      for (int row = start; row < end; row++) {
+        for (int col = 0; col < newWidth; col++) {
+          double srcX = col * xRatio;
+          double srcY = row * yRatio;
+
+          int x1 = (int) Math.floor(srcX);
+          int y1 = (int) Math.floor(srcY);
+          int x2 = Math.min(x1 + 1, img.getWidth() - 1);
+          int y2 = Math.min(y1 + 1, img.getHeight() - 1);
+
+          double dx = srcX - x1;
+          double dy = srcY - y1;
+
+          int c11 = img.getRGB(y1, x1);
+          int c12 = img.getRGB(y2, x1);
+          int c21 = img.getRGB(y1, x2);
+          int c22 = img.getRGB(y2, x2);
+
+          int newPixel = 0;
+          for (int shift = 16; shift >= 0; shift -= 8) {
+            double c1 = ((c11 >> shift) & 0xFF) * (1 - dy) + ((c12 >> shift) & 0xFF) * dy;
+            double c2 = ((c21 >> shift) & 0xFF) * (1 - dy) + ((c22 >> shift) & 0xFF) * dy;
+            newPixel |= (int) (c1 * (1 - dx) + c2 * dx) << shift;
+          }
+          line[col] = newPixel;
         }
-        result.setPixel(row, col, newPixel);
+        result.setRow(row, line);
       }
+    });
+    return result;
+  }
+
+  @Override
+  public Image resize(Image img, int newWidth, int newHeight, Resampler.Filter filter) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
     }
+    Resampler resampler = new Resampler(img.getWidth(), img.getHeight(), newWidth, newHeight,
+        filter);
+    Image result = ImageFactory.createLike(img, newWidth, newHeight);
+    forEachBand(newHeight, (start, end) -> resampler.apply(img, result, start, end));
     return result;
   }
+
+  @Override
+  public Image areaDownscale(Image img, int newWidth, int newHeight) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    AreaDownscaler downscaler = new AreaDownscaler(img.getWidth(), img.getHeight(), newWidth,
+        newHeight);
+    Image result = ImageFactory.createLike(img, newWidth, newHeight);
+    forEachBand(newHeight, (start, end) -> downscaler.apply(img, result, start, end));
+    return result;
+  }
+
+  @Override
+  public List<Image> pyramid(Image img, int levels) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    return AreaDownscaler.pyramid(img, levels);
+  }
+
+  @Override
+  public void flipHorizontalInPlace(Image img) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (img instanceof FloatImage) {
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.mirrorRows((FloatImage) img, start, end));
+      return;
+    }
+    int width = img.getWidth();
+    forEachBand(img.getHeight(), (start, end) -> {
+      int[] line = new int[width];
+      for (int row = start; row < end; row++) {
+        img.getRow(row, line);
+        for (int left = 0, right = width - 1; left < right; left++, right--) {
+          int pixel = line[left];
+          line[left] = line[right];
+          line[right] = pixel;
+        }
+        img.setRow(row, line);
+      }
+    });
+  }
+
+  @Override
+  public void flipVerticalInPlace(Image img) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (img instanceof FloatImage) {
+      forEachBand(img.getHeight() / 2,
+          (start, end) -> FloatOps.swapRows((FloatImage) img, start, end));
+      return;
+    }
+    int height = img.getHeight();
+    // Each band swaps its rows of the top half with the mirrored rows of the bottom half
+    forEachBand(height / 2, (start, end) -> {
+      int[] top = new int[img.getWidth()];
+      int[] bottom = new int[img.getWidth()];
+      for (int row = start; row < end; row++) {
+        img.getRow(row, top);
+        img.getRow(height - 1 - row, bottom);
+        img.setRow(row, bottom);
+        img.setRow(height - 1 - row, top);
+      }
+    });
+  }
+
+  @Override
+  public void brightenInPlace(Image img, int increment) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.brighten(source, increment, source, start, end));
+      return;
+    }
+    writeBack(PointwiseImage.of(img, brightenTable(increment)), img);
+  }
+
+  @Override
+  public void adjustLevelsInPlace(Image image, int blThresh, int mtPoint, int whPoint) {
+    int[] table = levelsTable(blThresh, mtPoint, whPoint);
+    if (image instanceof FloatImage) {
+      FloatImage source = (FloatImage) image;
+      forEachBand(image.getHeight(), (start, end) ->
+          FloatOps.levels(source, blThresh, mtPoint, whPoint, source, start, end));
+      return;
+    }
+    writeBack(PointwiseImage.of(image, table), image);
+  }
+
+  @Override
+  public void colorMatrixInPlace(Image img, double[][] matrix) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (img instanceof FloatImage) {
+      FloatImage source = (FloatImage) img;
+      double[][] affine = ColorMatrixImage.affine(matrix);
+      forEachBand(img.getHeight(),
+          (start, end) -> FloatOps.matrix(source, affine, source, start, end));
+      return;
+    }
+    writeBack(ColorMatrixImage.of(img, matrix), img);
+  }
+
+  @Override
+  public Image materialize(Image img) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (!(img instanceof LazyImage) || ((LazyImage) img).isMaterialized()) {
+      return img;
+    }
+    LazyImage view = (LazyImage) img;
+    Image copy = view.createCopy();
+    forEachBand(img.getHeight(), (start, end) -> view.copyRows(copy, start, end));
+    return view.materialize(copy);
+  }
+
+  /**
+   * Helper function for the in place operations. Copy a view computed pixel by pixel from an image
+   * back into that image. Every row is read before it is written, so this is safe as long as each
+   * pixel of the view only depends on the same pixel of the image.
+   *
+   * @param view the view computed from the image
+   * @param img  the image to overwrite
+   */
+  private void writeBack(Image view, Image img) {
+    forEachBand(img.getHeight(), (start, end) -> {
+      int[] line = new int[img.getWidth()];
+      for (int row = start; row < end; row++) {
+        view.getRegion(row, 0, line.length, 1, line, 0);
+        img.setRow(row, line);
+      }
+    });
+  }
 }
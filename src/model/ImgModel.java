@@ -1,5 +1,6 @@
 package model;
 
+import java.util.List;
 import model.image.Image;
 
 /**
@@ -15,6 +16,15 @@ public interface ImgModel {
    */
   Image splitImage(Image image);
 
+  /**
+   * Splits an image into greyscale images of its red, green and blue channels in a single pass
+   * over it. The results hold one plane each, so together they take the memory of one image.
+   *
+   * @param image the image to split
+   * @return the red, green and blue channel images, in that order
+   */
+  List<Image> splitChannels(Image image);
+
   /**
    * Combines the red, green, and blue components of separate images into one final image.
    *
@@ -82,6 +92,61 @@ public interface ImgModel {
    */
   Image sharpen(Image img);
 
+  /**
+   * Blurs the given image with a box: every pixel becomes the rounded average of the pixels at most
+   * radius rows and columns away that lie inside the image. The cost does not depend on the radius.
+   *
+   * @param img    the image to blur.
+   * @param radius the radius of the box.
+   * @return a new Image object that is blurred.
+   * @throws IllegalArgumentException if the radius is negative or the box is too large to sum.
+   */
+  Image boxBlur(Image img, int radius);
+
+  /**
+   * Blurs the given image with an approximate Gaussian that reaches the given radius at three
+   * standard deviations, computed as three box blurs. The cost does not depend on the radius.
+   *
+   * @param img    the image to blur.
+   * @param radius the radius of the blur.
+   * @return a new Image object that is blurred.
+   * @throws IllegalArgumentException if the radius is negative or too large to sum.
+   */
+  Image blur(Image img, int radius);
+
+  /**
+   * Blurs the given image with a Gaussian kernel that reaches three standard deviations.
+   *
+   * @param img   the image to blur.
+   * @param sigma the standard deviation of the Gaussian in pixels.
+   * @return a new Image object that is blurred.
+   * @throws IllegalArgumentException if sigma is not greater than zero.
+   */
+  Image gaussianBlur(Image img, double sigma);
+
+  /**
+   * Convolve the given image with a square kernel of odd size. Pixels outside the image repeat the
+   * nearest edge pixel.
+   *
+   * @param img    the image to filter.
+   * @param kernel the kernel, row by row.
+   * @return a new Image object with the kernel applied.
+   * @throws IllegalArgumentException if the kernel is not square or its size is not odd.
+   */
+  Image convolve(Image img, double[][] kernel);
+
+  /**
+   * Multiply every pixel of the given image by an affine colour matrix, clamping each channel to
+   * 0..255. Row c of the matrix gives the weights of red, green and blue in channel c, optionally
+   * followed by an offset added to the channel.
+   *
+   * @param img    the image to transform.
+   * @param matrix three rows of three weights, or of three weights and an offset.
+   * @return a new Image object with the matrix applied.
+   * @throws IllegalArgumentException if the matrix does not have that shape.
+   */
+  Image colorMatrix(Image img, double[][] matrix);
+
   /**
    * Converts an RGB image to a grayscale image based on the max value calculation.
    *
@@ -177,6 +242,182 @@ public interface ImgModel {
    */
   Image splitView(Image originImage, Image processedImage, int splitPercentage);
 
+  /**
+   * Brightens the part of an image inside a region, the other pixels are copied unchanged.
+   *
+   * @param img       the image to brighten
+   * @param increment the amount to increase the brightness
+   * @param region    the pixels to brighten
+   * @return the partly brightened image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image brighten(Image img, int increment, Region region);
+
+  /**
+   * Converts the part of an image inside a region to greyscale, the other pixels are copied
+   * unchanged.
+   *
+   * @param img    the image to convert
+   * @param region the pixels to convert
+   * @return the partly converted image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image toGreyscale(Image img, Region region);
+
+  /**
+   * Blurs the part of an image inside a region, the other pixels are copied unchanged. Pixels
+   * around the region are read but not computed.
+   *
+   * @param img    the image to blur
+   * @param region the pixels to blur
+   * @return the partly blurred image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image blur(Image img, Region region);
+
+  /**
+   * Blurs the part of an image inside a region with a box, the other pixels are copied unchanged.
+   * Pixels around the region are read but not computed.
+   *
+   * @param img    the image to blur
+   * @param radius the radius of the box
+   * @param region the pixels to blur
+   * @return the partly blurred image
+   * @throws IllegalArgumentException if the radius is negative or the box is too large to sum, or
+   *                                  the region is outside the image
+   */
+  Image boxBlur(Image img, int radius, Region region);
+
+  /**
+   * Blurs the part of an image inside a region with the approximate Gaussian of blur(img,
+   * radius), the other pixels are copied unchanged. Pixels around the region are read but not
+   * computed.
+   *
+   * @param img    the image to blur
+   * @param radius the radius of the blur
+   * @param region the pixels to blur
+   * @return the partly blurred image
+   * @throws IllegalArgumentException if the radius is negative or too large to sum, or the region
+   *                                  is outside the image
+   */
+  Image blur(Image img, int radius, Region region);
+
+  /**
+   * Applies sepia to the part of an image inside a region, the other pixels are copied unchanged.
+   *
+   * @param img    the image to apply the filter on
+   * @param region the pixels to filter
+   * @return the partly filtered image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image sepia(Image img, Region region);
+
+  /**
+   * Sharpens the part of an image inside a region, the other pixels are copied unchanged. Pixels
+   * around the region are read but not computed.
+   *
+   * @param img    the image to sharpen
+   * @param region the pixels to sharpen
+   * @return the partly sharpened image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image sharpen(Image img, Region region);
+
+  /**
+   * Blurs the part of an image inside a region with a Gaussian, the other pixels are copied
+   * unchanged.
+   *
+   * @param img    the image to blur
+   * @param sigma  the standard deviation of the Gaussian in pixels
+   * @param region the pixels to blur
+   * @return the partly blurred image
+   * @throws IllegalArgumentException if sigma is not positive or the region is outside the image
+   */
+  Image gaussianBlur(Image img, double sigma, Region region);
+
+  /**
+   * Convolves the part of an image inside a region with a kernel, the other pixels are copied
+   * unchanged.
+   *
+   * @param img    the image to filter
+   * @param kernel the square kernel of odd size, row by row
+   * @param region the pixels to filter
+   * @return the partly filtered image
+   * @throws IllegalArgumentException if the kernel is invalid or the region is outside the image
+   */
+  Image convolve(Image img, double[][] kernel, Region region);
+
+  /**
+   * Multiplies the pixels of an image inside a region by a colour matrix, the other pixels are
+   * copied unchanged.
+   *
+   * @param img    the image to transform
+   * @param matrix 3 rows of 3 channel weights, optionally followed by an offset
+   * @param region the pixels to transform
+   * @return the partly transformed image
+   * @throws IllegalArgumentException if the matrix is invalid or the region is outside the image
+   */
+  Image colorMatrix(Image img, double[][] matrix, Region region);
+
+  /**
+   * Replaces the pixels of an image inside a region by their value, the other pixels are copied
+   * unchanged.
+   *
+   * @param img    the image to convert
+   * @param region the pixels to convert
+   * @return the partly converted image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image value(Image img, Region region);
+
+  /**
+   * Replaces the pixels of an image inside a region by their intensity, the other pixels are
+   * copied unchanged.
+   *
+   * @param img    the image to convert
+   * @param region the pixels to convert
+   * @return the partly converted image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image intensity(Image img, Region region);
+
+  /**
+   * Replaces the pixels of an image inside a region by their luma, the other pixels are copied
+   * unchanged.
+   *
+   * @param img    the image to convert
+   * @param region the pixels to convert
+   * @return the partly converted image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image luma(Image img, Region region);
+
+  /**
+   * Adjusts the levels of the pixels of an image inside a region, the other pixels are copied
+   * unchanged.
+   *
+   * @param image    the image to adjust
+   * @param blThresh the black point
+   * @param mtPoint  the mid point
+   * @param whPoint  the white point
+   * @param region   the pixels to adjust
+   * @return the partly adjusted image
+   * @throws IllegalArgumentException if the points are invalid or the region is outside the image
+   */
+  Image adjustLevels(Image image, int blThresh, int mtPoint, int whPoint, Region region);
+
+  /**
+   * Colour corrects the pixels of an image inside a region, the other pixels are copied
+   * unchanged. The correction is worked out from the histogram of the whole image, so the region
+   * matches the same part of a fully corrected image.
+   *
+   * @param image  the image to correct
+   * @param region the pixels to correct
+   * @return the partly corrected image
+   * @throws IllegalArgumentException if the region is outside the image
+   */
+  Image correctColor(Image image, Region region);
+
 
   /**
    * Downscale an image to the specified width and height using bilinear interpolation.
@@ -187,4 +428,91 @@ public interface ImgModel {
    * @return the downscaled image
    */
   Image downscale(Image img, int newWidth, int newHeight);
+
+  /**
+   * Resize an image, larger or smaller, to the specified width and height with a reconstruction
+   * filter. The resize runs separably, a horizontal pass then a vertical pass.
+   *
+   * @param img       the original image
+   * @param newWidth  the desired width of the resized image
+   * @param newHeight the desired height of the resized image
+   * @param filter    the reconstruction filter
+   * @return the resized image
+   * @throws IllegalArgumentException if a dimension is not positive or the filter is null
+   */
+  Image resize(Image img, int newWidth, int newHeight, Resampler.Filter filter);
+
+  /**
+   * Downscale an image to the specified width and height by area averaging: every pixel of the
+   * result is the average of the source pixels its area covers, so nothing aliases at large
+   * reductions.
+   *
+   * @param img       the original image
+   * @param newWidth  the desired width, at most the width of the image
+   * @param newHeight the desired height, at most the height of the image
+   * @return the downscaled image
+   * @throws IllegalArgumentException if a dimension is not positive or larger than the image's
+   */
+  Image areaDownscale(Image img, int newWidth, int newHeight);
+
+  /**
+   * Build the 1/2, 1/4, 1/8... area-averaged reductions of an image in a single pass over it.
+   *
+   * @param img    the original image
+   * @param levels the number of reductions
+   * @return the reductions, from halved once to halved levels times
+   * @throws IllegalArgumentException if levels is not between 1 and 30
+   */
+  List<Image> pyramid(Image img, int levels);
+
+  /**
+   * Flips the given image horizontally in place, by swapping the pixels of each row.
+   *
+   * @param img the image to flip, which is modified.
+   */
+  void flipHorizontalInPlace(Image img);
+
+  /**
+   * Flips the given image vertically in place, by swapping its rows.
+   *
+   * @param img the image to flip, which is modified.
+   */
+  void flipVerticalInPlace(Image img);
+
+  /**
+   * Brightens the given image in place by a specified increment.
+   *
+   * @param img       the image to brighten, which is modified.
+   * @param increment the amount to increase the brightness.
+   */
+  void brightenInPlace(Image img, int increment);
+
+  /**
+   * Levels-adjust the given image in place.
+   *
+   * @param image    the image to adjust, which is modified
+   * @param blThresh black value
+   * @param mtPoint  mid value
+   * @param whPoint  white value
+   */
+  void adjustLevelsInPlace(Image image, int blThresh, int mtPoint, int whPoint);
+
+  /**
+   * Multiply every pixel of the given image by an affine colour matrix in place, as colorMatrix.
+   *
+   * @param img    the image to transform, which is modified.
+   * @param matrix three rows of three weights, or of three weights and an offset.
+   * @throws IllegalArgumentException if the matrix does not have that shape.
+   */
+  void colorMatrixInPlace(Image img, double[][] matrix);
+
+  /**
+   * Compute the pixels of a lazy view, as returned by brighten, sepia, the flips and other
+   * pointwise operations, into a real image once, the way the model runs its other operations.
+   * Later reads of the view use that copy. Any other image is returned as it is.
+   *
+   * @param img the image to materialize
+   * @return the materialized copy of a lazy view, or the image itself
+   */
+  Image materialize(Image img);
 }
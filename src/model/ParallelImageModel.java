@@ -0,0 +1,88 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelImageModel runs the row loops of ImageModel on a ForkJoinPool. The rows of an image are
+ * split into bands and the bands are processed concurrently. Every row is computed exactly as in
+ * ImageModel, so the results are bit-identical to the serial model.
+ */
+public class ParallelImageModel extends ImageModel {
+
+  /**
+   * Bands are not split below this many rows, smaller bands cost more to schedule than to run.
+   */
+  private static final int MIN_BAND_ROWS = 16;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructor of the model using one thread per available processor.
+   */
+  public ParallelImageModel() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Constructor of the model.
+   *
+   * @param parallelism the number of threads working on an operation
+   */
+  public ParallelImageModel(int parallelism) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be greater than zero");
+    }
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * Return the number of threads working on an operation.
+   *
+   * @return the parallelism of the pool
+   */
+  public int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  @Override
+  protected void forEachBand(int height, RowBand task) {
+    // A few bands per thread so that threads finishing early can steal work
+    int bandRows = Math.max(MIN_BAND_ROWS, height / (pool.getParallelism() * 4) + 1);
+    if (height <= bandRows || pool.getParallelism() == 1) {
+      task.run(0, height);
+      return;
+    }
+    pool.invoke(new Band(task, 0, height, bandRows));
+  }
+
+  /**
+   * Fork/join task that halves its rows until they fit in one band.
+   */
+  private static class Band extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final RowBand task;
+    private final int start;
+    private final int end;
+    private final int bandRows;
+
+    Band(RowBand task, int start, int end, int bandRows) {
+      this.task = task;
+      this.start = start;
+      this.end = end;
+      this.bandRows = bandRows;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= bandRows) {
+        task.run(start, end);
+        return;
+      }
+      int mid = (start + end) >>> 1;
+      invokeAll(new Band(task, start, mid, bandRows), new Band(task, mid, end, bandRows));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package model;
+
+import model.image.Image;
+
+/**
+ * Region is a rectangle of pixels an operation is limited to: the operations of ImgModel that take
+ * one compute the pixels inside it and copy the others from their input. A region is immutable.
+ */
+public final class Region {
+
+  private final int row;
+  private final int col;
+  private final int width;
+  private final int height;
+
+  /**
+   * Constructor of the region.
+   *
+   * @param row    the top row of the region
+   * @param col    the left column of the region
+   * @param width  the number of columns of the region
+   * @param height the number of rows of the region
+   * @throws IllegalArgumentException if a coordinate or a size is negative
+   */
+  public Region(int row, int col, int width, int height) {
+    if (row < 0 || col < 0 || width < 0 || height < 0) {
+      throw new IllegalArgumentException("Region coordinates and size cannot be negative");
+    }
+    this.row = row;
+    this.col = col;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Return the region covering a whole image.
+   *
+   * @param img the image
+   * @return the region of all its pixels
+   */
+  public static Region of(Image img) {
+    return new Region(0, 0, img.getWidth(), img.getHeight());
+  }
+
+  /**
+   * Return the left part of an image a split view shows processed.
+   *
+   * @param img             the image
+   * @param splitPercentage the percentage of the width on the left of the split
+   * @return the columns left of the split, all rows
+   * @throws IllegalArgumentException if the image is null or the percentage is not between 0 and
+   *                                  100
+   */
+  public static Region split(Image img, int splitPercentage) {
+    if (img == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (splitPercentage < 0 || splitPercentage > 100) {
+      throw new IllegalArgumentException("Split percentage should be in the range of (0-100)");
+    }
+    return new Region(0, 0, img.getWidth() * splitPercentage / 100, img.getHeight());
+  }
+
+  /**
+   * Check that the region lies within an image.
+   *
+   * @param img the image
+   * @throws IllegalArgumentException if part of the region is outside the image
+   */
+  public void checkInside(Image img) {
+    if (col + width > img.getWidth() || row + height > img.getHeight()) {
+      throw new IllegalArgumentException("Region is outside the image");
+    }
+  }
+
+  /**
+   * Return the top row of the region.
+   *
+   * @return the row
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * Return the left column of the region.
+   *
+   * @return the column
+   */
+  public int getCol() {
+    return col;
+  }
+
+  /**
+   * Return the number of columns of the region.
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Return the number of rows of the region.
+   *
+   * @return the height
+   */
+  public int getHeight() {
+    return height;
+  }
+}
@@ -0,0 +1,271 @@
+package model;
+
+import java.util.Arrays;
+import model.image.Image;
+import model.image.ImageFactory;
+
+/**
+ * Resampler resizes images, larger or smaller, with a choice of reconstruction filter. It works
+ * separably: every source row it needs is filtered horizontally to the new width once, then each
+ * output row is a weighted sum of those filtered rows. The contributions (first source pixel and
+ * weights) of every output column and row are worked out once when the resampler is created and
+ * shared by all rows and channels. When shrinking, the filters are widened by the reduction
+ * factor so that they average over the source pixels an output pixel covers. Pixels outside the
+ * image repeat the nearest edge pixel. A resampler is immutable and can be shared between
+ * threads.
+ */
+public class Resampler {
+
+  /**
+   * The reconstruction filters, from fastest and blockiest to slowest and sharpest.
+   */
+  public enum Filter {
+    /**
+     * Nearest pixel when enlarging, plain average when shrinking.
+     */
+    BOX(0.5),
+    /**
+     * Linear interpolation, the tent filter.
+     */
+    TRIANGLE(1),
+    /**
+     * Catmull-Rom cubic (a = -0.5), sharper than linear with slight overshoot.
+     */
+    BICUBIC(2),
+    /**
+     * Windowed sinc of three lobes, the sharpest and slowest.
+     */
+    LANCZOS(3);
+
+    private final double radius;
+
+    Filter(double radius) {
+      this.radius = radius;
+    }
+
+    /**
+     * Return the distance from the centre beyond which the filter is zero.
+     *
+     * @return the radius of the filter in source pixels, before any widening
+     */
+    public double getRadius() {
+      return radius;
+    }
+
+    /**
+     * Return the weight of a sample at a distance from the centre.
+     *
+     * @param x the signed distance in source pixels, before any widening
+     * @return the weight, not normalized
+     */
+    public double weight(double x) {
+      double t = Math.abs(x);
+      switch (this) {
+        case BOX:
+          return x >= -0.5 && x < 0.5 ? 1 : 0;
+        case TRIANGLE:
+          return t < 1 ? 1 - t : 0;
+        case BICUBIC:
+          if (t < 1) {
+            return (1.5 * t - 2.5) * t * t + 1;
+          }
+          return t < 2 ? ((-0.5 * t + 2.5) * t - 4) * t + 2 : 0;
+        default:
+          if (t < 1e-9) {
+            return 1;
+          }
+          if (t >= 3) {
+            return 0;
+          }
+          double px = Math.PI * x;
+          return 3 * Math.sin(px) * Math.sin(px / 3) / (px * px);
+      }
+    }
+  }
+
+  private final int width;
+  private final int height;
+  private final int newWidth;
+  private final int newHeight;
+  private final Contributions columns;
+  private final Contributions rows;
+
+  /**
+   * Source pixels and normalized weights of every output pixel along one axis. Output pixel i
+   * reads count[i] consecutive source pixels from first[i], whose weights are stored from
+   * offset[i] on. Taps falling outside the image are folded onto the edge pixel.
+   */
+  private static final class Contributions {
+
+    private final int[] first;
+    private final int[] count;
+    private final int[] offset;
+    private final float[] weights;
+    private final int maxCount;
+
+    private Contributions(int size, int newSize, Filter filter) {
+      double scale = (double) newSize / size;
+      // When shrinking, stretch the filter over the source pixels one output pixel covers
+      double stretch = Math.max(1, 1 / scale);
+      double support = filter.getRadius() * stretch;
+      this.first = new int[newSize];
+      this.count = new int[newSize];
+      this.offset = new int[newSize + 1];
+      double[][] taps = new double[newSize][];
+      int longest = 0;
+      for (int i = 0; i < newSize; i++) {
+        double center = (i + 0.5) / scale - 0.5;
+        int lo = (int) Math.ceil(center - support);
+        int hi = (int) Math.floor(center + support);
+        int start = Math.max(0, Math.min(lo, size - 1));
+        int end = Math.min(size - 1, Math.max(hi, 0));
+        double[] tap = new double[end - start + 1];
+        double total = 0;
+        for (int p = lo; p <= hi; p++) {
+          double w = filter.weight((p - center) / stretch);
+          tap[Math.max(start, Math.min(p, end)) - start] += w;
+          total += w;
+        }
+        if (total == 0) {
+          // Cannot happen for the filters above, but never divide by zero
+          Arrays.fill(tap, 0);
+          tap[Math.max(0, Math.min((int) Math.round(center), end)) - start] = 1;
+          total = 1;
+        }
+        for (int k = 0; k < tap.length; k++) {
+          tap[k] /= total;
+        }
+        first[i] = start;
+        count[i] = tap.length;
+        offset[i + 1] = offset[i] + tap.length;
+        taps[i] = tap;
+        longest = Math.max(longest, tap.length);
+      }
+      this.weights = new float[offset[newSize]];
+      for (int i = 0; i < newSize; i++) {
+        for (int k = 0; k < count[i]; k++) {
+          weights[offset[i] + k] = (float) taps[i][k];
+        }
+      }
+      this.maxCount = longest;
+    }
+  }
+
+  /**
+   * Constructor of the resampler.
+   *
+   * @param width     width of the source images
+   * @param height    height of the source images
+   * @param newWidth  width of the resized images
+   * @param newHeight height of the resized images
+   * @param filter    the reconstruction filter
+   * @throws IllegalArgumentException if a size is not positive or the filter is null
+   */
+  public Resampler(int width, int height, int newWidth, int newHeight, Filter filter) {
+    if (width <= 0 || height <= 0 || newWidth <= 0 || newHeight <= 0) {
+      throw new IllegalArgumentException("Dimensions must be greater than zero");
+    }
+    if (filter == null) {
+      throw new IllegalArgumentException("Filter cannot be null");
+    }
+    this.width = width;
+    this.height = height;
+    this.newWidth = newWidth;
+    this.newHeight = newHeight;
+    this.columns = new Contributions(width, newWidth, filter);
+    this.rows = new Contributions(height, newHeight, filter);
+  }
+
+  /**
+   * Resize a whole image.
+   *
+   * @param img the image to resize, of the source size
+   * @return the resized image
+   */
+  public Image apply(Image img) {
+    Image result = ImageFactory.createLike(img, newWidth, newHeight);
+    apply(img, result, 0, newHeight);
+    return result;
+  }
+
+  /**
+   * Resize the source rows under a band of output rows. Only the rows of the band are written, so
+   * bands can be computed concurrently; the source rows two bands share are filtered by both.
+   *
+   * @param img      the image to resize, of the source size
+   * @param dest     the image receiving the result, of the new size
+   * @param startRow first output row of the band
+   * @param endRow   output row after the last row of the band
+   * @throws IllegalArgumentException if the image does not have the source size
+   */
+  public void apply(Image img, Image dest, int startRow, int endRow) {
+    if (img.getWidth() != width || img.getHeight() != height) {
+      throw new IllegalArgumentException("Image does not have the size of the resampler");
+    }
+    // The rows read by an output row are consecutive and move down with it, so a ring of as many
+    // filtered rows as the longest vertical filter holds all of them and each is filtered once
+    int slots = rows.maxCount;
+    float[][] ring = new float[slots][3 * newWidth];
+    int[] ringRow = new int[slots];
+    Arrays.fill(ringRow, -1);
+    int[] pixels = new int[width];
+    float[] sums = new float[3 * newWidth];
+    int[] line = new int[newWidth];
+    for (int row = startRow; row < endRow; row++) {
+      Arrays.fill(sums, 0);
+      int first = rows.first[row];
+      for (int k = 0; k < rows.count[row]; k++) {
+        int source = first + k;
+        int slot = source % slots;
+        if (ringRow[slot] != source) {
+          img.getRow(source, pixels);
+          filterRow(pixels, ring[slot]);
+          ringRow[slot] = source;
+        }
+        float weight = rows.weights[rows.offset[row] + k];
+        float[] filtered = ring[slot];
+        for (int i = 0; i < sums.length; i++) {
+          sums[i] += weight * filtered[i];
+        }
+      }
+      for (int col = 0; col < newWidth; col++) {
+        line[col] = (clamp(sums[col]) << 16) | (clamp(sums[newWidth + col]) << 8)
+            | clamp(sums[2 * newWidth + col]);
+      }
+      dest.setRow(row, line);
+    }
+  }
+
+  /**
+   * Filter a source row horizontally to the new width, red, green and blue one after the other.
+   */
+  private void filterRow(int[] pixels, float[] dest) {
+    int[] first = columns.first;
+    int[] count = columns.count;
+    int[] offset = columns.offset;
+    float[] weights = columns.weights;
+    for (int col = 0; col < newWidth; col++) {
+      float red = 0;
+      float green = 0;
+      float blue = 0;
+      int p = first[col];
+      for (int k = offset[col], end = k + count[col]; k < end; k++, p++) {
+        int rgb = pixels[p];
+        float weight = weights[k];
+        red += weight * ((rgb >> 16) & 0xFF);
+        green += weight * ((rgb >> 8) & 0xFF);
+        blue += weight * (rgb & 0xFF);
+      }
+      dest[col] = red;
+      dest[newWidth + col] = green;
+      dest[2 * newWidth + col] = blue;
+    }
+  }
+
+  /**
+   * Round a channel sum and clamp it to 0..255, the sharper filters overshoot near edges.
+   */
+  private static int clamp(float value) {
+    return Math.max(0, Math.min(255, Math.round(value)));
+  }
+}
@@ -0,0 +1,159 @@
+package model;
+
+import model.image.Image;
+
+/**
+ * Summed-area table of the red, green and blue channels of an image. Entry (row, col) holds the
+ * sum of the channel over all pixels above and left of it, so the sum over any rectangle takes four
+ * lookups whatever its size. The sums are kept in ints and are allowed to wrap around: differences
+ * of wrapped sums are still exact as long as the sum over the rectangle fits in 32 bits unsigned,
+ * which holds for every rectangle of up to 16843009 pixels.
+ */
+public class SummedAreaTable {
+
+  /**
+   * Largest number of pixels a rectangle may hold for its sums to be exact.
+   */
+  public static final int MAX_AREA = 16843009;
+
+  private final int width;
+  private final int height;
+  private final int stride;
+  private final int[][] sums;
+
+  /**
+   * Build the table of an image.
+   *
+   * @param image the image to sum
+   */
+  public SummedAreaTable(Image image) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    this.width = image.getWidth();
+    this.height = image.getHeight();
+    this.stride = width + 1;
+    int size = Math.multiplyExact(stride, height + 1);
+    this.sums = new int[][]{new int[size], new int[size], new int[size]};
+    int[] line = new int[width];
+    for (int row = 0; row < height; row++) {
+      image.getRow(row, line);
+      int above = row * stride;
+      int here = above + stride;
+      for (int channel = 0; channel < 3; channel++) {
+        int[] table = sums[channel];
+        int shift = 16 - 8 * channel;
+        int rowSum = 0;
+        for (int col = 0; col < width; col++) {
+          rowSum += (line[col] >> shift) & 0xFF;
+          table[here + col + 1] = table[above + col + 1] + rowSum;
+        }
+      }
+    }
+  }
+
+  /**
+   * Return the sum of a channel over a rectangle.
+   *
+   * @param channel the channel, 0 for red, 1 for green and 2 for blue
+   * @param top     first row of the rectangle
+   * @param left    first column of the rectangle
+   * @param bottom  row after the last row of the rectangle
+   * @param right   column after the last column of the rectangle
+   * @return the sum of the channel values
+   */
+  public long sum(int channel, int top, int left, int bottom, int right) {
+    int[] table = sums[channel];
+    return Integer.toUnsignedLong(table[bottom * stride + right] - table[top * stride + right]
+        - table[bottom * stride + left] + table[top * stride + left]);
+  }
+
+  /**
+   * Write the box blur of a band of rows to an image of the same size. Every pixel becomes the
+   * rounded average of the pixels at most radius rows and columns away that lie inside the image.
+   *
+   * @param dest     the image receiving the result
+   * @param radius   the radius of the box
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   * @throws IllegalArgumentException if the radius is negative or the box, cut to the image, can
+   *                                  hold more than MAX_AREA pixels
+   */
+  public void boxBlur(Image dest, int radius, int startRow, int endRow) {
+    checkRadius(radius);
+    int[] line = new int[width];
+    for (int row = startRow; row < endRow; row++) {
+      int top = Math.max(row - radius, 0);
+      int bottom = Math.min(row + radius + 1, height);
+      for (int col = 0; col < width; col++) {
+        int left = Math.max(col - radius, 0);
+        int right = Math.min(col + radius + 1, width);
+        long count = (long) (bottom - top) * (right - left);
+        int newPixel = 0;
+        for (int channel = 0; channel < 3; channel++) {
+          long average = (sum(channel, top, left, bottom, right) + count / 2) / count;
+          newPixel |= (int) average << (16 - 8 * channel);
+        }
+        line[col] = newPixel;
+      }
+      dest.setRow(row, line);
+    }
+  }
+
+  /**
+   * Check that a box of the given radius can be summed exactly on this table.
+   *
+   * @param radius the radius of the box
+   * @throws IllegalArgumentException if the radius is negative or the box, cut to the image, can
+   *                                  hold more than MAX_AREA pixels
+   */
+  public void checkRadius(int radius) {
+    checkRadius(radius, width, height);
+  }
+
+  /**
+   * Check that a box of the given radius can be summed exactly on the table of an image of the
+   * given size, before the table is built.
+   *
+   * @param radius the radius of the box
+   * @param width  width of the image
+   * @param height height of the image
+   * @throws IllegalArgumentException if the radius is negative or the box, cut to the image, can
+   *                                  hold more than MAX_AREA pixels
+   */
+  public static void checkRadius(int radius, int width, int height) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius cannot be negative");
+    }
+    long side = 2L * radius + 1;
+    if (Math.min(side, width) * Math.min(side, height) > MAX_AREA) {
+      throw new IllegalArgumentException("Radius is too large for this image");
+    }
+  }
+
+  /**
+   * Return the radii of box blurs that, applied one after the other, approximate a Gaussian blur.
+   * The box widths are chosen so that the variance of the repeated box matches the Gaussian's.
+   *
+   * @param sigma  the standard deviation of the Gaussian
+   * @param passes how many box blurs to apply
+   * @return the radius of each pass
+   */
+  public static int[] gaussianBoxRadii(double sigma, int passes) {
+    // Ideal box width, rounded down to an odd width, then the first m passes use it and the rest
+    // use the next odd width so that the total variance is closest to sigma squared
+    double ideal = Math.sqrt(12 * sigma * sigma / passes + 1);
+    int lower = (int) Math.floor(ideal);
+    if (lower % 2 == 0) {
+      lower--;
+    }
+    int upper = lower + 2;
+    long m = Math.round((12 * sigma * sigma - passes * (double) lower * lower
+        - 4.0 * passes * lower - 3.0 * passes) / (-4.0 * lower - 4));
+    int[] radii = new int[passes];
+    for (int i = 0; i < passes; i++) {
+      radii[i] = ((i < m ? lower : upper) - 1) / 2;
+    }
+    return radii;
+  }
+}
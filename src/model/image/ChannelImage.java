@@ -0,0 +1,49 @@
+package model.image;
+
+import java.util.Objects;
+
+/**
+ * Lazy greyscale image that shows one channel of its source in all three channels.
+ */
+public class ChannelImage extends LazyImage {
+
+  private final int shift;
+
+  /**
+   * Constructor of the channel view.
+   *
+   * @param source  the image to read the channel from
+   * @param channel the channel to show, 0 for red, 1 for green and 2 for blue
+   */
+  public ChannelImage(Image source, int channel) {
+    super(source);
+    this.shift = 16 - 8 * Objects.checkIndex(channel, 3);
+  }
+
+  /**
+   * Return the channel this view shows.
+   *
+   * @return 0 for red, 1 for green and 2 for blue
+   */
+  public int getChannel() {
+    return (16 - shift) / 8;
+  }
+
+  @Override
+  protected boolean computesGrey() {
+    return true;
+  }
+
+  @Override
+  protected int computeRGB(int row, int col) {
+    return ((source.getRGB(row, col) >> shift) & 0xFF) * 0x010101;
+  }
+
+  @Override
+  protected void computeRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    source.getRegion(row, col, width, height, dest, offset);
+    for (int i = offset; i < offset + width * height; i++) {
+      dest[i] = ((dest[i] >> shift) & 0xFF) * 0x010101;
+    }
+  }
+}
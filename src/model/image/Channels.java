@@ -0,0 +1,29 @@
+package model.image;
+
+/**
+ * Channels turns channel values computed in floating point back into 0..255, the same way for
+ * every operation that computes them so.
+ */
+public final class Channels {
+
+  /**
+   * Added to a channel value before truncation where the same value can be computed with
+   * different rounding errors, such as a product of colour matrices against the matrices applied
+   * in turn, or an FFT against a direct sum. Without it a value that is exactly an integer can
+   * truncate to the integer below.
+   */
+  public static final double ROUNDING_SLACK = 1e-6;
+
+  private Channels() {
+  }
+
+  /**
+   * Clamp a channel value to 0..255 and truncate it.
+   *
+   * @param value the computed value
+   * @return the channel value
+   */
+  public static int clamp(double value) {
+    return (int) Math.min(Math.max(value, 0), 255);
+  }
+}
@@ -0,0 +1,287 @@
+package model.image;
+
+import java.util.Arrays;
+
+/**
+ * Lazy image that multiplies every pixel of its source by one or more affine colour matrices, one
+ * after the other, clamping to 0..255 and truncating after each. A matrix has three rows, row c
+ * giving the weights of red, green and blue in channel c followed by an optional offset.
+ *
+ * <p>Matrices are applied in 16.16 fixed point: weights and offsets are rounded to multiples of
+ * 1/65536 and the channel sums are computed in int. The rounding moves each weight by at most
+ * 1/131072, so a channel differs from the double result by at most 1, and only when the exact value
+ * lies within about 0.006 of an integer. Matrices whose sums could overflow an int are applied in
+ * double.
+ *
+ * <p>Applying a matrix to a colour matrix or channel view that has not been materialized adds it
+ * to that view instead of stacking views, so a chain is read from the source in one pass. Two
+ * matrices are multiplied into one when that gives the same result as applying them in turn, up to
+ * the fixed-point rounding described above: when the second only picks channels of the first, or
+ * when the first has integer weights and cannot leave 0..255, so that neither clamping nor
+ * truncation happens between them. Other matrices are kept as separate stages of the same pass.
+ */
+public class ColorMatrixImage extends LazyImage {
+
+  /**
+   * The value 1 in the 16.16 fixed point the matrices are applied in.
+   */
+  private static final int FIXED_ONE = 1 << 16;
+
+  /**
+   * Bound on the absolute value of a channel sum for it to fit in an int in fixed point.
+   */
+  private static final double FIXED_LIMIT = 32767;
+
+  private final double[][][] stages;
+  private final int[][] fixed;
+
+  private ColorMatrixImage(Image source, double[][][] stages) {
+    super(source);
+    this.stages = stages;
+    this.fixed = new int[stages.length][];
+    for (int i = 0; i < stages.length; i++) {
+      fixed[i] = toFixed(stages[i]);
+    }
+  }
+
+  /**
+   * Multiply every pixel of an image by a colour matrix.
+   *
+   * @param source the image to transform
+   * @param matrix three rows of three weights, or of three weights and an offset
+   * @return the transformed view
+   * @throws IllegalArgumentException if the matrix does not have that shape
+   */
+  public static ColorMatrixImage of(Image source, double[][] matrix) {
+    double[][] stage = affine(matrix);
+    Image base = source;
+    double[][][] inner = new double[0][][];
+    if (source instanceof ColorMatrixImage && !((ColorMatrixImage) source).isMaterialized()) {
+      base = ((ColorMatrixImage) source).source;
+      inner = ((ColorMatrixImage) source).stages;
+    } else if (source instanceof ChannelImage && !((ChannelImage) source).isMaterialized()) {
+      base = ((ChannelImage) source).getSource();
+      inner = new double[][][]{selection(((ChannelImage) source).getChannel())};
+    }
+    if (inner.length > 0) {
+      double[][] merged = compose(inner[inner.length - 1], stage);
+      if (merged != null) {
+        double[][][] stages = inner.clone();
+        stages[stages.length - 1] = merged;
+        return new ColorMatrixImage(base, stages);
+      }
+    }
+    double[][][] stages = new double[inner.length + 1][][];
+    System.arraycopy(inner, 0, stages, 0, inner.length);
+    stages[inner.length] = stage;
+    return new ColorMatrixImage(base, stages);
+  }
+
+  /**
+   * Return the number of matrices applied in turn when the image is read.
+   *
+   * @return the number of stages
+   */
+  public int getStageCount() {
+    return stages.length;
+  }
+
+  /**
+   * Return a copy of one of the matrices applied when the image is read.
+   *
+   * @param stage the index of the stage, 0 being applied first
+   * @return three rows of three weights and an offset
+   */
+  public double[][] getMatrix(int stage) {
+    double[][] matrix = stages[stage];
+    return new double[][]{matrix[0].clone(), matrix[1].clone(), matrix[2].clone()};
+  }
+
+  /**
+   * Check the shape of a colour matrix and return a copy of it with the offsets, zero if missing,
+   * in a fourth column.
+   *
+   * @param matrix three rows of three weights, or of three weights and an offset
+   * @return three rows of three weights and an offset
+   * @throws IllegalArgumentException if the matrix does not have that shape
+   */
+  public static double[][] affine(double[][] matrix) {
+    if (matrix == null || matrix.length != 3) {
+      throw new IllegalArgumentException("A colour matrix must have 3 rows");
+    }
+    double[][] affine = new double[3][4];
+    for (int c = 0; c < 3; c++) {
+      if (matrix[c] == null || (matrix[c].length != 3 && matrix[c].length != 4)) {
+        throw new IllegalArgumentException("A colour matrix row must have 3 weights and an "
+            + "optional offset");
+      }
+      System.arraycopy(matrix[c], 0, affine[c], 0, matrix[c].length);
+    }
+    return affine;
+  }
+
+  private static double[][] selection(int channel) {
+    double[][] matrix = new double[3][4];
+    for (int c = 0; c < 3; c++) {
+      matrix[c][channel] = 1;
+    }
+    return matrix;
+  }
+
+  /**
+   * Return the single matrix equivalent to applying inner and then outer, or null if clamping or
+   * truncating between them could change the result.
+   */
+  private static double[][] compose(double[][] inner, double[][] outer) {
+    int[] picked = pickedRows(outer);
+    if (picked != null) {
+      return new double[][]{inner[picked[0]].clone(), inner[picked[1]].clone(),
+          inner[picked[2]].clone()};
+    }
+    if (!isExact(inner)) {
+      return null;
+    }
+    double[][] product = new double[3][4];
+    for (int k = 0; k < 3; k++) {
+      product[k][3] = outer[k][3];
+      for (int c = 0; c < 3; c++) {
+        for (int j = 0; j < 4; j++) {
+          product[k][j] += outer[k][c] * inner[c][j];
+        }
+      }
+    }
+    return product;
+  }
+
+  /**
+   * Return for each row of a matrix the only channel it copies, or null if a row does anything
+   * else.
+   */
+  private static int[] pickedRows(double[][] matrix) {
+    int[] picked = new int[3];
+    for (int c = 0; c < 3; c++) {
+      double[] row = matrix[c];
+      if (row[3] != 0) {
+        return null;
+      }
+      picked[c] = -1;
+      for (int j = 0; j < 3; j++) {
+        if (row[j] == 1 && picked[c] < 0) {
+          picked[c] = j;
+        } else if (row[j] != 0) {
+          return null;
+        }
+      }
+      if (picked[c] < 0) {
+        return null;
+      }
+    }
+    return picked;
+  }
+
+  /**
+   * Return whether a matrix has integer weights and offsets and maps every pixel inside 0..255.
+   */
+  private static boolean isExact(double[][] matrix) {
+    for (double[] row : matrix) {
+      double low = row[3];
+      double high = row[3];
+      for (int j = 0; j < 4; j++) {
+        if (row[j] != Math.rint(row[j])) {
+          return false;
+        }
+        if (j < 3) {
+          low += Math.min(row[j], 0) * 255;
+          high += Math.max(row[j], 0) * 255;
+        }
+      }
+      if (low < 0 || high > 255) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the weights and offsets of a matrix in 16.16 fixed point, row after row, or null if a
+   * channel sum could overflow an int.
+   */
+  private static int[] toFixed(double[][] matrix) {
+    int[] fixed = new int[12];
+    for (int c = 0; c < 3; c++) {
+      double[] row = matrix[c];
+      double bound = (Math.abs(row[0]) + Math.abs(row[1]) + Math.abs(row[2])) * 255
+          + Math.abs(row[3]);
+      if (!(bound < FIXED_LIMIT)) {
+        return null;
+      }
+      for (int j = 0; j < 4; j++) {
+        fixed[c * 4 + j] = (int) Math.round(row[j] * FIXED_ONE);
+      }
+    }
+    return fixed;
+  }
+
+  /**
+   * Multiply a run of packed pixels by a matrix in place in double, clamping and truncating each
+   * channel. Used for matrices too large for fixed point.
+   */
+  private static void apply(double[][] matrix, int[] pixels, int from, int to) {
+    double rr = matrix[0][0];
+    double rg = matrix[0][1];
+    double rb = matrix[0][2];
+    double ro = matrix[0][3] + Channels.ROUNDING_SLACK;
+    double gr = matrix[1][0];
+    double gg = matrix[1][1];
+    double gb = matrix[1][2];
+    double go = matrix[1][3] + Channels.ROUNDING_SLACK;
+    double br = matrix[2][0];
+    double bg = matrix[2][1];
+    double bb = matrix[2][2];
+    double bo = matrix[2][3] + Channels.ROUNDING_SLACK;
+    for (int i = from; i < to; i++) {
+      int rgb = pixels[i];
+      double r = (rgb >> 16) & 0xFF;
+      double g = (rgb >> 8) & 0xFF;
+      double b = rgb & 0xFF;
+      double red = rr * r + rg * g + rb * b + ro;
+      double green = gr * r + gg * g + gb * b + go;
+      double blue = br * r + bg * g + bb * b + bo;
+      pixels[i] = (Channels.clamp(red) << 16) | (Channels.clamp(green) << 8)
+          | Channels.clamp(blue);
+    }
+  }
+
+  /**
+   * Apply every stage to a run of packed pixels in place.
+   */
+  private void applyStages(int[] pixels, int from, int to) {
+    for (int i = 0; i < stages.length; i++) {
+      if (fixed[i] != null) {
+        PixelKernels.matrix(fixed[i], pixels, from, to);
+      } else {
+        apply(stages[i], pixels, from, to);
+      }
+    }
+  }
+
+  @Override
+  protected boolean computesGrey() {
+    // Equal rows in the last stage give every channel the same value
+    double[][] last = stages[stages.length - 1];
+    return Arrays.equals(last[0], last[1]) && Arrays.equals(last[1], last[2]);
+  }
+
+  @Override
+  protected int computeRGB(int row, int col) {
+    int[] pixel = {source.getRGB(row, col)};
+    applyStages(pixel, 0, 1);
+    return pixel[0];
+  }
+
+  @Override
+  protected void computeRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    source.getRegion(row, col, width, height, dest, offset);
+    applyStages(dest, offset, offset + width * height);
+  }
+}
@@ -0,0 +1,70 @@
+package model.image;
+
+/**
+ * Lazy image that shows its source flipped horizontally, vertically or both, by remapping the
+ * coordinates of every read.
+ */
+public class FlippedImage extends LazyImage {
+
+  private final boolean horizontal;
+  private final boolean vertical;
+
+  /**
+   * Constructor of the flipped view.
+   *
+   * @param source     the image to flip
+   * @param horizontal whether left and right are swapped
+   * @param vertical   whether top and bottom are swapped
+   */
+  public FlippedImage(Image source, boolean horizontal, boolean vertical) {
+    super(source);
+    this.horizontal = horizontal;
+    this.vertical = vertical;
+  }
+
+  /**
+   * Flip the given image, folding the flip into an existing unmaterialized flipped view so that
+   * flipping twice never stacks views.
+   *
+   * @param image      the image to flip
+   * @param horizontal whether to swap left and right
+   * @param vertical   whether to swap top and bottom
+   * @return the flipped view
+   */
+  public static FlippedImage of(Image image, boolean horizontal, boolean vertical) {
+    if (image instanceof FlippedImage && !((FlippedImage) image).isMaterialized()) {
+      FlippedImage flipped = (FlippedImage) image;
+      return new FlippedImage(flipped.source, flipped.horizontal != horizontal,
+          flipped.vertical != vertical);
+    }
+    return new FlippedImage(image, horizontal, vertical);
+  }
+
+  @Override
+  protected boolean computesGrey() {
+    return GreyImage.readsGrey(source);
+  }
+
+  @Override
+  protected int computeRGB(int row, int col) {
+    return source.getRGB(vertical ? getHeight() - 1 - row : row,
+        horizontal ? getWidth() - 1 - col : col);
+  }
+
+  @Override
+  protected void computeRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    int sourceCol = horizontal ? getWidth() - col - width : col;
+    for (int r = 0; r < height; r++) {
+      int sourceRow = vertical ? getHeight() - 1 - (row + r) : row + r;
+      int start = offset + r * width;
+      source.getRegion(sourceRow, sourceCol, width, 1, dest, start);
+      if (horizontal) {
+        for (int left = start, right = start + width - 1; left < right; left++, right--) {
+          int swap = dest[left];
+          dest[left] = dest[right];
+          dest[right] = swap;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package model.image;
+
+import java.util.Objects;
+
+/**
+ * Image that keeps red, green and blue as three float planes without clamping or rounding. It is
+ * used as the intermediate format of float pipelines: ImageModel keeps the results of float images
+ * in float, and values are only clamped to 0..255 and truncated when the image is read through the
+ * integer pixel methods, for example when it is saved.
+ */
+public class FloatImage implements Image {
+
+  private final int width;
+  private final int height;
+  private final float[][] planes;
+
+  /**
+   * Constructor of the image, all pixels start black.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  public FloatImage(int width, int height) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    int size = Math.multiplyExact(width, height);
+    this.planes = new float[][]{new float[size], new float[size], new float[size]};
+  }
+
+  /**
+   * Create a float copy of any image.
+   *
+   * @param image the image to copy
+   * @return a float image with the same pixels
+   */
+  public static FloatImage copyOf(Image image) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    FloatImage result = new FloatImage(image.getWidth(), image.getHeight());
+    if (image instanceof FloatImage) {
+      for (int c = 0; c < 3; c++) {
+        System.arraycopy(((FloatImage) image).planes[c], 0, result.planes[c], 0,
+            result.planes[c].length);
+      }
+      return result;
+    }
+    int[] line = new int[image.getWidth()];
+    for (int row = 0; row < image.getHeight(); row++) {
+      image.getRow(row, line);
+      result.setRegion(row, 0, line.length, 1, line, 0);
+    }
+    return result;
+  }
+
+  /**
+   * Return the plane of the given channel. The array is live, pixel i of the plane is at row
+   * i / width and column i % width, and writing to it changes the image.
+   *
+   * @param channel the channel, 0 for red, 1 for green and 2 for blue
+   * @return the plane of unclamped channel values
+   */
+  public float[] getPlane(int channel) {
+    return planes[Objects.checkIndex(channel, 3)];
+  }
+
+  /**
+   * Clamp a float channel value to 0..255 and truncate it.
+   *
+   * @param value the float value
+   * @return the quantized value
+   */
+  public static int quantize(float value) {
+    return (int) Math.min(Math.max(value, 0), 255);
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    int i = index(row, col);
+    return new int[]{quantize(planes[0][i]), quantize(planes[1][i]), quantize(planes[2][i])};
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    int i = index(row, col);
+    planes[0][i] = rgb[0];
+    planes[1][i] = rgb[1];
+    planes[2][i] = rgb[2];
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    planes[Objects.checkIndex(channel, 3)][index(row, col)] = value;
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return quantize(planes[Objects.checkIndex(channel, 3)][index(row, col)]);
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int i = index(row, col);
+    return (quantize(planes[0][i]) << 16) | (quantize(planes[1][i]) << 8)
+        | quantize(planes[2][i]);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    int i = index(row, col);
+    planes[0][i] = (rgb >> 16) & 0xFF;
+    planes[1][i] = (rgb >> 8) & 0xFF;
+    planes[2][i] = rgb & 0xFF;
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      for (int c = 0; c < width; c++) {
+        int i = start + c;
+        dest[offset++] = (quantize(planes[0][i]) << 16) | (quantize(planes[1][i]) << 8)
+            | quantize(planes[2][i]);
+      }
+    }
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      for (int c = 0; c < width; c++) {
+        int rgb = src[offset++];
+        planes[0][start + c] = (rgb >> 16) & 0xFF;
+        planes[1][start + c] = (rgb >> 8) & 0xFF;
+        planes[2][start + c] = rgb & 0xFF;
+      }
+    }
+  }
+
+  /**
+   * Check that the given rectangle lies inside the image.
+   */
+  private void checkRegion(int row, int col, int width, int height) {
+    Objects.checkFromIndexSize(row, height, this.height);
+    Objects.checkFromIndexSize(col, width, this.width);
+  }
+
+  private int index(int row, int col) {
+    return Objects.checkIndex(row, height) * width + Objects.checkIndex(col, width);
+  }
+}
@@ -0,0 +1,215 @@
+package model.image;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Image for greyscale pixels, whose red, green and blue are equal. It stores one byte plane, so it
+ * takes 1 byte per pixel, and reads as RGB like any other image. Writing a pixel whose channels
+ * differ promotes the image: green and blue get planes of their own, copied from the grey plane,
+ * and from then on it stores 3 bytes per pixel like a PlanarImage. Bands of rows can be written
+ * concurrently with setRow and setRegion, which check for a promotion once per call and make it
+ * wait for the grey writes in progress. Single pixels are written without that check, so they must
+ * not be set while another thread writes the image.
+ */
+public class GreyImage implements Image {
+
+  private final int width;
+  private final int height;
+  private final byte[] red;
+  private volatile byte[] green;
+  private volatile byte[] blue;
+  private final ReentrantReadWriteLock promotion = new ReentrantReadWriteLock();
+
+  /**
+   * Constructor of the image, all pixels start black.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  public GreyImage(int width, int height) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    this.red = new byte[Math.multiplyExact(width, height)];
+  }
+
+  /**
+   * Return whether the image still stores a single grey plane.
+   *
+   * @return true until a pixel with different channels is written
+   */
+  public boolean isGrey() {
+    return green == null;
+  }
+
+  /**
+   * Return whether every pixel of an image is known to have three equal channels: a grey image
+   * that has not been promoted, or a lazy image computing grey pixels.
+   */
+  static boolean readsGrey(Image image) {
+    if (image instanceof GreyImage) {
+      return ((GreyImage) image).isGrey();
+    }
+    return image instanceof LazyImage && ((LazyImage) image).isGrey();
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    int rgb = getRGB(row, col);
+    return new int[]{(rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF};
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    setRGB(row, col, ((rgb[0] & 0xFF) << 16) | ((rgb[1] & 0xFF) << 8) | (rgb[2] & 0xFF));
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    int shift = 16 - 8 * Objects.checkIndex(channel, 3);
+    setRGB(row, col, (getRGB(row, col) & ~(0xFF << shift)) | ((value & 0xFF) << shift));
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return (getRGB(row, col) >> (16 - 8 * Objects.checkIndex(channel, 3))) & 0xFF;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int i = index(row, col);
+    byte[] g = green;
+    int r = red[i] & 0xFF;
+    if (g == null) {
+      return r * 0x010101;
+    }
+    return (r << 16) | ((g[i] & 0xFF) << 8) | (blue[i] & 0xFF);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    int i = index(row, col);
+    if (green == null) {
+      if (isGreyPixel(rgb)) {
+        red[i] = (byte) rgb;
+        return;
+      }
+      promote();
+    }
+    red[i] = (byte) (rgb >> 16);
+    green[i] = (byte) (rgb >> 8);
+    blue[i] = (byte) rgb;
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    byte[] g = green;
+    byte[] b = blue;
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      int to = offset + r * width;
+      if (g == null) {
+        for (int c = 0; c < width; c++) {
+          dest[to + c] = (red[start + c] & 0xFF) * 0x010101;
+        }
+      } else {
+        for (int c = 0; c < width; c++) {
+          int i = start + c;
+          dest[to + c] = ((red[i] & 0xFF) << 16) | ((g[i] & 0xFF) << 8) | (b[i] & 0xFF);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    if (green == null) {
+      promotion.readLock().lock();
+      try {
+        if (green == null && allGrey(src, offset, width * height)) {
+          for (int r = 0; r < height; r++) {
+            int start = (row + r) * this.width + col;
+            int from = offset + r * width;
+            for (int c = 0; c < width; c++) {
+              red[start + c] = (byte) src[from + c];
+            }
+          }
+          return;
+        }
+      } finally {
+        promotion.readLock().unlock();
+      }
+      promote();
+    }
+    byte[] g = green;
+    byte[] b = blue;
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      int from = offset + r * width;
+      for (int c = 0; c < width; c++) {
+        int rgb = src[from + c];
+        red[start + c] = (byte) (rgb >> 16);
+        g[start + c] = (byte) (rgb >> 8);
+        b[start + c] = (byte) rgb;
+      }
+    }
+  }
+
+  /**
+   * Give green and blue planes of their own, once. Blue is set before green, so a reader that sees
+   * the green plane also sees the blue one.
+   */
+  private void promote() {
+    promotion.writeLock().lock();
+    try {
+      if (green == null) {
+        blue = red.clone();
+        green = red.clone();
+      }
+    } finally {
+      promotion.writeLock().unlock();
+    }
+  }
+
+  private static boolean allGrey(int[] src, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      if (!isGreyPixel(src[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isGreyPixel(int rgb) {
+    return (rgb & 0xFFFFFF) == (rgb & 0xFF) * 0x010101;
+  }
+
+  /**
+   * Check that the given rectangle lies inside the image.
+   */
+  private void checkRegion(int row, int col, int width, int height) {
+    Objects.checkFromIndexSize(row, height, this.height);
+    Objects.checkFromIndexSize(col, width, this.width);
+  }
+
+  private int index(int row, int col) {
+    return Objects.checkIndex(row, height) * width + Objects.checkIndex(col, width);
+  }
+}
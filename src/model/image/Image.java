@@ -1,5 +1,7 @@
 package model.image;
 
+import java.util.Objects;
+
 /**
  * This interface defines all the operations that all image must implement.
  */
@@ -42,4 +44,90 @@ public interface Image {
    */
   void setPixel(int x, int y, int channel, int value);
 
+  /**
+   * Return one channel value of the given pixel without allocating an array.
+   * @param x x-coordinate
+   * @param y y-coordinate
+   * @param channel channel
+   * @return the channel value
+   */
+  default int getChannel(int x, int y, int channel) {
+    return getPixel(x, y)[channel];
+  }
+
+  /**
+   * Return the given pixel packed as 0xRRGGBB.
+   * @param x x-coordinate
+   * @param y y-coordinate
+   * @return the packed RGB value
+   */
+  default int getRGB(int x, int y) {
+    int[] pixel = getPixel(x, y);
+    return (pixel[0] << 16) | (pixel[1] << 8) | pixel[2];
+  }
+
+  /**
+   * Set the given pixel from a value packed as 0xRRGGBB, higher bits are ignored.
+   * @param x x-coordinate
+   * @param y y-coordinate
+   * @param rgb packed RGB value
+   */
+  default void setRGB(int x, int y, int rgb) {
+    setPixel(x, y, new int[]{(rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF});
+  }
+
+  /**
+   * Read a rectangle of pixels packed as 0xRRGGBB into the given buffer, row after row.
+   * @param x x-coordinate of the top row
+   * @param y y-coordinate of the left column
+   * @param width number of columns to read
+   * @param height number of rows to read
+   * @param dest buffer receiving width * height packed values
+   * @param offset position in the buffer of the first value
+   */
+  default void getRegion(int x, int y, int width, int height, int[] dest, int offset) {
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        dest[offset++] = getRGB(x + row, y + col);
+      }
+    }
+  }
+
+  /**
+   * Write a rectangle of pixels packed as 0xRRGGBB from the given buffer, row after row.
+   * @param x x-coordinate of the top row
+   * @param y y-coordinate of the left column
+   * @param width number of columns to write
+   * @param height number of rows to write
+   * @param src buffer holding width * height packed values
+   * @param offset position in the buffer of the first value
+   */
+  default void setRegion(int x, int y, int width, int height, int[] src, int offset) {
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        setRGB(x + row, y + col, src[offset++]);
+      }
+    }
+  }
+
+  /**
+   * Read a whole row of pixels packed as 0xRRGGBB into the given buffer.
+   * @param x x-coordinate of the row
+   * @param dest buffer of at least getWidth() values
+   */
+  default void getRow(int x, int[] dest) {
+    getRegion(x, 0, getWidth(), 1, dest, 0);
+  }
+
+  /**
+   * Write a whole row of pixels packed as 0xRRGGBB from the given buffer.
+   * @param x x-coordinate of the row
+   * @param src buffer of at least getWidth() values
+   */
+  default void setRow(int x, int[] src) {
+    setRegion(x, 0, getWidth(), 1, src, 0);
+  }
+
 }
@@ -0,0 +1,110 @@
+package model.image;
+
+/**
+ * ImageFactory decides which Image implementation holds new pixel data. Images are PackedImage by
+ * default. Images with at least {@link #getOffHeapThreshold()} pixels, and results computed from an
+ * off-heap image, are created as OffHeapImage so that large jobs do not depend on the heap size.
+ * Results computed from a TiledImage are tiled as well, and other greyscale results are GreyImage.
+ * Images are taken from the shared ImagePool when it holds one of the right format and size.
+ * The threshold can be set with the system property {@value #THRESHOLD_PROPERTY}.
+ */
+public class ImageFactory {
+
+  /**
+   * System property holding the number of pixels from which images are stored off-heap.
+   */
+  public static final String THRESHOLD_PROPERTY = "ime.offheap.pixels";
+
+  private static long offHeapThreshold = Long.getLong(THRESHOLD_PROPERTY, 100_000_000L);
+
+  /**
+   * Create a blank image of the given size.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @return a black image
+   */
+  public static Image create(int width, int height) {
+    if ((long) width * height >= offHeapThreshold) {
+      return createOffHeap(width, height);
+    }
+    PackedImage pooled = ImagePool.getShared().acquire(PackedImage.class, width, height);
+    return pooled != null ? pooled : new PackedImage(width, height);
+  }
+
+  /**
+   * Create a blank image of the given size for a result computed from the source image. The
+   * result stays off-heap when the source is off-heap and tiled when the source is tiled.
+   *
+   * @param source the image the result is computed from
+   * @param width  width of the result
+   * @param height height of the result
+   * @return a black image
+   */
+  public static Image createLike(Image source, int width, int height) {
+    if (source instanceof OffHeapImage) {
+      return createOffHeap(width, height);
+    }
+    if (source instanceof TiledImage) {
+      int tileSize = ((TiledImage) source).getTileSize();
+      TiledImage pooled = tileSize == TiledImage.DEFAULT_TILE_SIZE
+          ? ImagePool.getShared().acquire(TiledImage.class, width, height) : null;
+      return pooled != null ? pooled : new TiledImage(width, height, tileSize);
+    }
+    return create(width, height);
+  }
+
+  /**
+   * Create a blank image of the given size for a greyscale result computed from the source image.
+   * It is a GreyImage, storing one byte per pixel, unless it has to be off-heap or the source is
+   * tiled, in which case it is created as by createLike.
+   *
+   * @param source the image the result is computed from
+   * @param width  width of the result
+   * @param height height of the result
+   * @return a black image
+   */
+  public static Image createGrey(Image source, int width, int height) {
+    if (source instanceof OffHeapImage || source instanceof TiledImage
+        || (long) width * height >= offHeapThreshold) {
+      return createLike(source, width, height);
+    }
+    return new GreyImage(width, height);
+  }
+
+  private static Image createOffHeap(int width, int height) {
+    OffHeapImage pooled = ImagePool.getShared().acquire(OffHeapImage.class, width, height);
+    return pooled != null ? pooled : new OffHeapImage(width, height);
+  }
+
+  /**
+   * Create a blank image with the size of the source image.
+   *
+   * @param source the image the result is computed from
+   * @return a black image
+   */
+  public static Image createLike(Image source) {
+    return createLike(source, source.getWidth(), source.getHeight());
+  }
+
+  /**
+   * Return the number of pixels from which new images are stored off-heap.
+   *
+   * @return the off-heap threshold in pixels
+   */
+  public static long getOffHeapThreshold() {
+    return offHeapThreshold;
+  }
+
+  /**
+   * Set the number of pixels from which new images are stored off-heap.
+   *
+   * @param pixels the off-heap threshold in pixels
+   */
+  public static void setOffHeapThreshold(long pixels) {
+    if (pixels < 0) {
+      throw new IllegalArgumentException("Threshold cannot be negative");
+    }
+    offHeapThreshold = pixels;
+  }
+}
@@ -0,0 +1,161 @@
+package model.image;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ImagePool keeps images that are no longer used so that later results of the same size and
+ * format can reuse their storage instead of allocating a new image. ImageFactory draws new images
+ * from the shared pool and the controllers return images to it when they overwrite or drop them.
+ * PackedImage, OffHeapImage and TiledImage with the default tile size are pooled, other images are
+ * ignored. Reused images are cleared to black before they are handed out.
+ */
+public class ImagePool {
+
+  private static final ImagePool SHARED = new ImagePool(4, Runtime.getRuntime().maxMemory() / 4);
+
+  private final int maxPerKey;
+  private final long maxHeapBytes;
+  private final Map<String, Deque<Image>> free = new HashMap<>();
+  private long heapBytes;
+
+  /**
+   * Constructor of the pool.
+   *
+   * @param maxPerKey    how many images of the same size and format are kept at most
+   * @param maxHeapBytes how many bytes of heap the kept images may take at most
+   */
+  public ImagePool(int maxPerKey, long maxHeapBytes) {
+    if (maxPerKey < 0 || maxHeapBytes < 0) {
+      throw new IllegalArgumentException("Pool limits cannot be negative");
+    }
+    this.maxPerKey = maxPerKey;
+    this.maxHeapBytes = maxHeapBytes;
+  }
+
+  /**
+   * Return the pool used by ImageFactory.
+   *
+   * @return the shared pool
+   */
+  public static ImagePool getShared() {
+    return SHARED;
+  }
+
+  /**
+   * Take a black image of the given format and size out of the pool.
+   *
+   * @param type   the image class wanted
+   * @param width  width of the image
+   * @param height height of the image
+   * @param <T>    the image class
+   * @return a cleared image, or null if the pool holds none of that format and size
+   */
+  public synchronized <T extends Image> T acquire(Class<T> type, int width, int height) {
+    Deque<Image> images = free.get(key(type, width, height));
+    if (images == null || images.isEmpty()) {
+      return null;
+    }
+    Image image = images.pop();
+    heapBytes -= heapSize(image);
+    clear(image);
+    return type.cast(image);
+  }
+
+  /**
+   * Give an image back to the pool unless one of the live images still uses it, either directly
+   * or as the source or materialized copy of a lazy image.
+   *
+   * @param image the image that is no longer needed
+   * @param live  the images that are still in use
+   * @return true if the image was kept for reuse
+   */
+  public synchronized boolean release(Image image, Iterable<Image> live) {
+    if (!isPoolable(image) || isUsed(image, live)) {
+      return false;
+    }
+    Deque<Image> images = free.computeIfAbsent(
+        key(image.getClass(), image.getWidth(), image.getHeight()), k -> new ArrayDeque<>());
+    long size = heapSize(image);
+    if (images.size() >= maxPerKey || heapBytes + size > maxHeapBytes || images.contains(image)) {
+      return false;
+    }
+    images.push(image);
+    heapBytes += size;
+    return true;
+  }
+
+  /**
+   * Drop every image held by the pool.
+   */
+  public synchronized void clearPool() {
+    free.clear();
+    heapBytes = 0;
+  }
+
+  /**
+   * Return whether one of the live images is the given image or reads from it, either directly or
+   * as the source or materialized copy of a lazy image.
+   *
+   * @param image the image to look for
+   * @param live  the images that are still in use
+   * @return true if a live image uses the image
+   */
+  public static boolean isUsed(Image image, Iterable<Image> live) {
+    for (Image other : live) {
+      if (uses(other, image)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return whether the given image reads from or is the target image.
+   */
+  private static boolean uses(Image image, Image target) {
+    while (image != null) {
+      if (image == target) {
+        return true;
+      }
+      if (!(image instanceof LazyImage)) {
+        return false;
+      }
+      LazyImage lazy = (LazyImage) image;
+      if (lazy.materializedCopy() == target) {
+        return true;
+      }
+      image = lazy.getSource();
+    }
+    return false;
+  }
+
+  private static boolean isPoolable(Image image) {
+    return image instanceof PackedImage || image instanceof OffHeapImage
+        || image instanceof TiledImage
+        && ((TiledImage) image).getTileSize() == TiledImage.DEFAULT_TILE_SIZE;
+  }
+
+  private static void clear(Image image) {
+    if (image instanceof PackedImage) {
+      ((PackedImage) image).clear();
+    } else if (image instanceof OffHeapImage) {
+      ((OffHeapImage) image).clear();
+    } else if (image instanceof TiledImage) {
+      ((TiledImage) image).clear();
+    }
+  }
+
+  private static long heapSize(Image image) {
+    if (image instanceof OffHeapImage) {
+      return 0;
+    }
+    return 4L * image.getWidth() * image.getHeight();
+  }
+
+  private static String key(Class<?> type, int width, int height) {
+    return type.getName() + ":" + width + "x" + height;
+  }
+}
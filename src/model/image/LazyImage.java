@@ -0,0 +1,225 @@
+package model.image;
+
+/**
+ * Base class of images that compute their pixels from a source image when they are read instead of
+ * storing them. A lazy image costs nothing to create. The first time it is written to, it copies its
+ * pixels into a real image (materializes) and from then on reads and writes go to that copy. Reading
+ * a lazy image, for example to save it, never materializes it. A lazy image computing grey pixels
+ * materializes into a GreyImage.
+ */
+public abstract class LazyImage implements Image {
+
+  protected final Image source;
+  private volatile Image materialized;
+
+  /**
+   * Constructor of the lazy image.
+   *
+   * @param source the image the pixels are computed from
+   */
+  protected LazyImage(Image source) {
+    if (source == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    this.source = source;
+  }
+
+  /**
+   * Compute one pixel from the source image.
+   *
+   * @param row row of the pixel
+   * @param col column of the pixel
+   * @return the pixel packed as 0xRRGGBB
+   */
+  protected abstract int computeRGB(int row, int col);
+
+  /**
+   * Compute a rectangle of pixels from the source image, packed as 0xRRGGBB row after row.
+   *
+   * @param row    top row of the rectangle
+   * @param col    left column of the rectangle
+   * @param width  number of columns
+   * @param height number of rows
+   * @param dest   buffer receiving the pixels
+   * @param offset position in the buffer of the first pixel
+   */
+  protected abstract void computeRegion(int row, int col, int width, int height, int[] dest,
+      int offset);
+
+  /**
+   * Return whether every pixel this image computes has three equal channels, in which case it is
+   * materialized into a GreyImage. Subclasses that know their pixels are grey override this.
+   *
+   * @return false unless a subclass knows better
+   */
+  protected boolean computesGrey() {
+    return false;
+  }
+
+  /**
+   * Return whether every pixel of this image has three equal channels, as far as is known.
+   *
+   * @return true if the pixels computed, or the materialized copy, are grey
+   */
+  public boolean isGrey() {
+    Image copy = materialized;
+    return copy != null ? GreyImage.readsGrey(copy) : computesGrey();
+  }
+
+  /**
+   * Return the image the pixels are computed from.
+   *
+   * @return the source image
+   */
+  public Image getSource() {
+    return source;
+  }
+
+  /**
+   * Return whether this image has been copied into a real image.
+   *
+   * @return true if the image is materialized
+   */
+  public boolean isMaterialized() {
+    return materialized != null;
+  }
+
+  /**
+   * Return the number of lazy views a read of this image goes through before it reaches a real
+   * image or a materialized copy, this image included.
+   *
+   * @return the length of the chain of views, 0 if this image is materialized
+   */
+  public int getViewDepth() {
+    int depth = 0;
+    Image image = this;
+    while (image instanceof LazyImage && !((LazyImage) image).isMaterialized()) {
+      depth++;
+      image = ((LazyImage) image).source;
+    }
+    return depth;
+  }
+
+  /**
+   * Copy the pixels of this image into a real image, once. Later reads and writes use that copy.
+   *
+   * @return the materialized image
+   */
+  public synchronized Image materialize() {
+    if (materialized == null) {
+      Image copy = createCopy();
+      copyRows(copy, 0, getHeight());
+      materialized = copy;
+    }
+    return materialized;
+  }
+
+  /**
+   * Return a new image of the format and size this image materializes into, for a caller that
+   * computes the copy itself, for example in concurrent bands of rows with copyRows.
+   *
+   * @return the new image, not yet holding the pixels of this image
+   */
+  public Image createCopy() {
+    return computesGrey() ? ImageFactory.createGrey(source, getWidth(), getHeight())
+        : ImageFactory.createLike(source, getWidth(), getHeight());
+  }
+
+  /**
+   * Compute the rows startRow to endRow of this image into an image returned by createCopy. Bands
+   * of rows can be computed concurrently.
+   *
+   * @param copy     the image receiving the rows
+   * @param startRow first row to compute
+   * @param endRow   row after the last row to compute
+   */
+  public void copyRows(Image copy, int startRow, int endRow) {
+    int[] line = new int[getWidth()];
+    for (int row = startRow; row < endRow; row++) {
+      computeRegion(row, 0, line.length, 1, line, 0);
+      copy.setRow(row, line);
+    }
+  }
+
+  /**
+   * Use an image from createCopy whose rows have all been computed with copyRows as the
+   * materialized copy of this image, unless it was materialized in the meantime.
+   *
+   * @param copy the computed copy
+   * @return the materialized image
+   * @throws IllegalArgumentException if the copy does not have the size of this image
+   */
+  public synchronized Image materialize(Image copy) {
+    if (copy == null || copy.getWidth() != getWidth() || copy.getHeight() != getHeight()) {
+      throw new IllegalArgumentException("The copy must have the size of the image");
+    }
+    if (materialized == null) {
+      materialized = copy;
+    }
+    return materialized;
+  }
+
+  /**
+   * Return the materialized copy of this image, or null if it has not been materialized.
+   */
+  Image materializedCopy() {
+    return materialized;
+  }
+
+  @Override
+  public int getWidth() {
+    return source.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return source.getHeight();
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    int rgb = getRGB(row, col);
+    return new int[]{(rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF};
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return getPixel(row, col)[channel];
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    Image copy = materialized;
+    return copy != null ? copy.getRGB(row, col) : computeRGB(row, col);
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    Image copy = materialized;
+    if (copy != null) {
+      copy.getRegion(row, col, width, height, dest, offset);
+    } else {
+      computeRegion(row, col, width, height, dest, offset);
+    }
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    materialize().setPixel(row, col, rgb);
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    materialize().setPixel(row, col, channel, value);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    materialize().setRGB(row, col, rgb);
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    materialize().setRegion(row, col, width, height, src, offset);
+  }
+}
@@ -0,0 +1,175 @@
+package model.image;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Image that keeps its pixels outside the Java heap. Pixels are stored as 3 bytes (red, green,
+ * blue) in memory-mapped buffers over a temporary file, so neither -Xmx nor
+ * -XX:MaxDirectMemorySize limits the image size and the garbage collector never scans the pixel
+ * data. The image is split into chunks of whole rows because a single buffer cannot exceed 2 GB.
+ */
+public class OffHeapImage implements Image {
+
+  private static final int BYTES_PER_PIXEL = 3;
+  private static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE;
+
+  private final int width;
+  private final int height;
+  private final int rowsPerChunk;
+  private final ByteBuffer[] chunks;
+
+  /**
+   * Constructor of the image, all pixels start black.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  public OffHeapImage(int width, int height) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    long rowBytes = Math.max(1L, (long) width * BYTES_PER_PIXEL);
+    this.rowsPerChunk = (int) Math.max(1, Math.min(height, MAX_CHUNK_BYTES / rowBytes));
+    int chunkCount = height == 0 ? 0 : (height + rowsPerChunk - 1) / rowsPerChunk;
+    this.chunks = new ByteBuffer[chunkCount];
+    try {
+      Path file = Files.createTempFile("ime-offheap", ".raw");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+          StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+        for (int i = 0; i < chunkCount; i++) {
+          int rows = Math.min(rowsPerChunk, height - i * rowsPerChunk);
+          chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+              i * rowsPerChunk * rowBytes, rows * rowBytes);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot allocate off-heap image storage", e);
+    }
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    ByteBuffer chunk = chunk(row);
+    int i = offset(row, col);
+    return new int[]{chunk.get(i) & 0xFF, chunk.get(i + 1) & 0xFF, chunk.get(i + 2) & 0xFF};
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    ByteBuffer chunk = chunk(row);
+    int i = offset(row, col);
+    chunk.put(i, (byte) rgb[0]);
+    chunk.put(i + 1, (byte) rgb[1]);
+    chunk.put(i + 2, (byte) rgb[2]);
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    chunk(row).put(offset(row, col) + Objects.checkIndex(channel, 3), (byte) value);
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return chunk(row).get(offset(row, col) + Objects.checkIndex(channel, 3)) & 0xFF;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    ByteBuffer chunk = chunk(row);
+    int i = offset(row, col);
+    return ((chunk.get(i) & 0xFF) << 16) | ((chunk.get(i + 1) & 0xFF) << 8)
+        | (chunk.get(i + 2) & 0xFF);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    ByteBuffer chunk = chunk(row);
+    int i = offset(row, col);
+    chunk.put(i, (byte) (rgb >> 16));
+    chunk.put(i + 1, (byte) (rgb >> 8));
+    chunk.put(i + 2, (byte) rgb);
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    for (int r = row; r < row + height; r++) {
+      ByteBuffer chunk = chunks[r / rowsPerChunk];
+      int i = ((r % rowsPerChunk) * this.width + col) * BYTES_PER_PIXEL;
+      for (int c = 0; c < width; c++, i += BYTES_PER_PIXEL) {
+        dest[offset++] = ((chunk.get(i) & 0xFF) << 16) | ((chunk.get(i + 1) & 0xFF) << 8)
+            | (chunk.get(i + 2) & 0xFF);
+      }
+    }
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    for (int r = row; r < row + height; r++) {
+      ByteBuffer chunk = chunks[r / rowsPerChunk];
+      int i = ((r % rowsPerChunk) * this.width + col) * BYTES_PER_PIXEL;
+      for (int c = 0; c < width; c++, i += BYTES_PER_PIXEL) {
+        int rgb = src[offset++];
+        chunk.put(i, (byte) (rgb >> 16));
+        chunk.put(i + 1, (byte) (rgb >> 8));
+        chunk.put(i + 2, (byte) rgb);
+      }
+    }
+  }
+
+  /**
+   * Reset every pixel to black.
+   */
+  public void clear() {
+    for (ByteBuffer chunk : chunks) {
+      int i = 0;
+      for (; i + Long.BYTES <= chunk.capacity(); i += Long.BYTES) {
+        chunk.putLong(i, 0L);
+      }
+      for (; i < chunk.capacity(); i++) {
+        chunk.put(i, (byte) 0);
+      }
+    }
+  }
+
+  /**
+   * Check that the given rectangle lies inside the image.
+   */
+  private void checkRegion(int row, int col, int width, int height) {
+    Objects.checkFromIndexSize(row, height, this.height);
+    Objects.checkFromIndexSize(col, width, this.width);
+  }
+
+  private ByteBuffer chunk(int row) {
+    return chunks[Objects.checkIndex(row, height) / rowsPerChunk];
+  }
+
+  /**
+   * Return the byte offset of the given pixel inside its chunk.
+   */
+  private int offset(int row, int col) {
+    return ((row % rowsPerChunk) * width + Objects.checkIndex(col, width)) * BYTES_PER_PIXEL;
+  }
+}
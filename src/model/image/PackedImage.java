@@ -0,0 +1,121 @@
+package model.image;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Image backed by a single flat int array. Every pixel is packed as 0xRRGGBB and pixels are stored
+ * row by row, so an image only takes 4 bytes per pixel and is read sequentially in memory.
+ */
+public class PackedImage implements Image {
+
+  protected final int width;
+  protected final int height;
+  protected final int[] data;
+
+  /**
+   * Constructor of the image, all pixels start black.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  public PackedImage(int width, int height) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    this.data = new int[Math.multiplyExact(width, height)];
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    int rgb = data[index(row, col)];
+    return new int[]{(rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF};
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    data[index(row, col)] = ((rgb[0] & 0xFF) << 16) | ((rgb[1] & 0xFF) << 8) | (rgb[2] & 0xFF);
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    int shift = 16 - 8 * Objects.checkIndex(channel, 3);
+    int i = index(row, col);
+    data[i] = (data[i] & ~(0xFF << shift)) | ((value & 0xFF) << shift);
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return (data[index(row, col)] >> (16 - 8 * Objects.checkIndex(channel, 3))) & 0xFF;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    return data[index(row, col)];
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    data[index(row, col)] = rgb & 0xFFFFFF;
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    for (int r = 0; r < height; r++) {
+      System.arraycopy(data, (row + r) * this.width + col, dest, offset + r * width, width);
+    }
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      int from = offset + r * width;
+      for (int c = 0; c < width; c++) {
+        data[start + c] = src[from + c] & 0xFFFFFF;
+      }
+    }
+  }
+
+  /**
+   * Reset every pixel to black.
+   */
+  public void clear() {
+    Arrays.fill(data, 0);
+  }
+
+  /**
+   * Check that the given rectangle lies inside the image.
+   */
+  private void checkRegion(int row, int col, int width, int height) {
+    Objects.checkFromIndexSize(row, height, this.height);
+    Objects.checkFromIndexSize(col, width, this.width);
+  }
+
+  /**
+   * Return the position of the given pixel inside the flat array.
+   *
+   * @param row row of the pixel
+   * @param col column of the pixel
+   * @return the array index of the pixel
+   */
+  private int index(int row, int col) {
+    return Objects.checkIndex(row, height) * width + Objects.checkIndex(col, width);
+  }
+}
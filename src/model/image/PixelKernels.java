@@ -0,0 +1,142 @@
+package model.image;
+
+/**
+ * Pointwise kernels over runs of packed 0xRRGGBB pixels, rewritten in place: the fixed-point colour
+ * matrix of ColorMatrixImage (greyscale, sepia, luma), the per-channel offset of a brightening
+ * PointwiseImage, and the value and intensity of ImageModel.
+ *
+ * <p>When the classes under vector/ are compiled and the program runs with
+ * {@code --add-modules jdk.incubator.vector}, each kernel first hands its run to VectorKernels,
+ * which computes a vector of pixels per instruction with the Vector API, and finishes the pixels
+ * left over with the scalar loop below. Otherwise, or with {@code -Dimage.kernels=scalar}, the
+ * scalar loops do all the work. Both compute exactly the same pixels.
+ */
+public final class PixelKernels {
+
+  /**
+   * The Vector API kernels, or null if they are not available.
+   */
+  private static final RowKernels VECTOR = loadVector();
+
+  private PixelKernels() {
+  }
+
+  /**
+   * Load the Vector API kernels by reflection, so that this class compiles and runs without the
+   * incubator module, and check them on a few pixels.
+   *
+   * @return the vector kernels, or null if they cannot be used
+   */
+  private static RowKernels loadVector() {
+    if ("scalar".equals(System.getProperty("image.kernels"))) {
+      return null;
+    }
+    try {
+      RowKernels kernels = (RowKernels) Class.forName("model.image.VectorKernels")
+          .getDeclaredConstructor().newInstance();
+      int[] probe = new int[64];
+      for (int i = 0; i < probe.length; i++) {
+        probe[i] = i * 0x040302;
+      }
+      kernels.value(probe, 0, probe.length);
+      return probe[63] == 0xFCFCFC ? kernels : null;
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // The vector classes were not compiled or jdk.incubator.vector is not in the module graph
+      return null;
+    }
+  }
+
+  /**
+   * Return whether the kernels run on the Vector API.
+   *
+   * @return true if the vector kernels are loaded
+   */
+  public static boolean isVectorized() {
+    return VECTOR != null;
+  }
+
+  /**
+   * Replace every pixel of a row by the grey of its largest channel.
+   *
+   * @param line the packed pixels of the row, overwritten with the result
+   */
+  public static void value(int[] line) {
+    int col = VECTOR == null ? 0 : VECTOR.value(line, 0, line.length);
+    for (; col < line.length; col++) {
+      int rgb = line[col];
+      int r = (rgb >> 16) & 0xFF;
+      int g = (rgb >> 8) & 0xFF;
+      int b = rgb & 0xFF;
+      line[col] = Math.max(r, Math.max(g, b)) * 0x010101;
+    }
+  }
+
+  /**
+   * Replace every pixel of a row by the grey of the truncated average of its channels.
+   *
+   * @param line the packed pixels of the row, overwritten with the result
+   */
+  public static void intensity(int[] line) {
+    int col = VECTOR == null ? 0 : VECTOR.intensity(line, 0, line.length);
+    for (; col < line.length; col++) {
+      int rgb = line[col];
+      int intensity = (((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF) + (rgb & 0xFF)) / 3;
+      line[col] = intensity * 0x010101;
+    }
+  }
+
+  /**
+   * Multiply a run of packed pixels by a matrix in 16.16 fixed point in place. Clamping the sum to
+   * 0 and to just below 256 in fixed point and shifting it truncates the channel.
+   *
+   * @param matrix the weights and offset of each channel in fixed point, row after row
+   * @param pixels the packed pixels
+   * @param from   index of the first pixel
+   * @param to     index after the last pixel
+   */
+  static void matrix(int[] matrix, int[] pixels, int from, int to) {
+    int rr = matrix[0];
+    int rg = matrix[1];
+    int rb = matrix[2];
+    int ro = matrix[3];
+    int gr = matrix[4];
+    int gg = matrix[5];
+    int gb = matrix[6];
+    int go = matrix[7];
+    int br = matrix[8];
+    int bg = matrix[9];
+    int bb = matrix[10];
+    int bo = matrix[11];
+    int max = (256 << 16) - 1;
+    int i = VECTOR == null ? from : VECTOR.matrix(matrix, pixels, from, to);
+    for (; i < to; i++) {
+      int rgb = pixels[i];
+      int r = (rgb >> 16) & 0xFF;
+      int g = (rgb >> 8) & 0xFF;
+      int b = rgb & 0xFF;
+      int red = Math.min(Math.max(rr * r + rg * g + rb * b + ro, 0), max);
+      int green = Math.min(Math.max(gr * r + gg * g + gb * b + go, 0), max);
+      int blue = Math.min(Math.max(br * r + bg * g + bb * b + bo, 0), max);
+      pixels[i] = (red & 0xFF0000) | ((green >> 8) & 0xFF00) | (blue >> 16);
+    }
+  }
+
+  /**
+   * Add an offset to each channel of a run of packed pixels in place, clamping to 0..255.
+   *
+   * @param offsets the offsets of red, green and blue
+   * @param pixels  the packed pixels
+   * @param from    index of the first pixel
+   * @param to      index after the last pixel
+   */
+  static void offset(int[] offsets, int[] pixels, int from, int to) {
+    int i = VECTOR == null ? from : VECTOR.offset(offsets, pixels, from, to);
+    for (; i < to; i++) {
+      int rgb = pixels[i];
+      int red = Math.min(Math.max(((rgb >> 16) & 0xFF) + offsets[0], 0), 255);
+      int green = Math.min(Math.max(((rgb >> 8) & 0xFF) + offsets[1], 0), 255);
+      int blue = Math.min(Math.max((rgb & 0xFF) + offsets[2], 0), 255);
+      pixels[i] = (red << 16) | (green << 8) | blue;
+    }
+  }
+}
@@ -0,0 +1,320 @@
+package model.image;
+
+import java.util.Objects;
+
+/**
+ * Image that stores the red, green and blue channels as three separate byte planes, so it takes
+ * 3 bytes per pixel. Planes can be shared between images, for example a red component is an image
+ * whose three planes are all the red plane of its source. A shared plane is copied the first time
+ * any of its owners writes to it, so sharing never changes what another image reads.
+ */
+public class PlanarImage implements Image {
+
+  private final int width;
+  private final int height;
+  private final byte[][] planes;
+  private final boolean[] owned;
+
+  /**
+   * Constructor of the image, all pixels start black.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  public PlanarImage(int width, int height) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    int size = Math.multiplyExact(width, height);
+    this.planes = new byte[][]{new byte[size], new byte[size], new byte[size]};
+    this.owned = new boolean[]{true, true, true};
+  }
+
+  /**
+   * Constructor that reuses the given planes. The planes are treated as shared until written.
+   */
+  private PlanarImage(int width, int height, byte[] red, byte[] green, byte[] blue) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    this.width = width;
+    this.height = height;
+    this.planes = new byte[][]{red, green, blue};
+    this.owned = new boolean[3];
+  }
+
+  /**
+   * Create a planar copy of any image.
+   *
+   * @param image the image to copy
+   * @return a planar image with the same pixels
+   */
+  public static PlanarImage copyOf(Image image) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (image instanceof PlanarImage) {
+      PlanarImage planar = (PlanarImage) image;
+      return planar.share(planar.planes[0], planar.planes[1], planar.planes[2]);
+    }
+    PlanarImage result = new PlanarImage(image.getWidth(), image.getHeight());
+    int[] rgb = new int[image.getWidth()];
+    for (int row = 0; row < image.getHeight(); row++) {
+      image.getRow(row, rgb);
+      result.setRegion(row, 0, rgb.length, 1, rgb, 0);
+    }
+    return result;
+  }
+
+  /**
+   * Create a greyscale image from one channel of the given image. If the image is planar, the
+   * channel plane is shared instead of copied.
+   *
+   * @param image   the source image
+   * @param channel the channel to extract, 0 for red, 1 for green and 2 for blue
+   * @return an image whose three channels all equal the chosen channel of the source
+   */
+  public static PlanarImage fromChannel(Image image, int channel) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    Objects.checkIndex(channel, 3);
+    if (image instanceof PlanarImage) {
+      PlanarImage planar = (PlanarImage) image;
+      byte[] plane = planar.planes[channel];
+      return planar.share(plane, plane, plane);
+    }
+    byte[] plane = new byte[image.getWidth() * image.getHeight()];
+    int shift = 16 - 8 * channel;
+    int[] rgb = new int[image.getWidth()];
+    int i = 0;
+    for (int row = 0; row < image.getHeight(); row++) {
+      image.getRow(row, rgb);
+      for (int value : rgb) {
+        plane[i++] = (byte) (value >> shift);
+      }
+    }
+    return new PlanarImage(image.getWidth(), image.getHeight(), plane, plane, plane);
+  }
+
+  /**
+   * Split an image into its red, green and blue channels in one pass. Each result is a greyscale
+   * image holding a single plane for its three channels, so the three take 3 bytes per pixel
+   * together. The planes of a planar image are shared instead of copied.
+   *
+   * @param image the source image
+   * @return the red, green and blue channel images
+   */
+  public static PlanarImage[] splitChannels(Image image) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (image instanceof PlanarImage) {
+      return new PlanarImage[]{fromChannel(image, 0), fromChannel(image, 1),
+          fromChannel(image, 2)};
+    }
+    int width = image.getWidth();
+    int height = image.getHeight();
+    byte[] red = new byte[Math.multiplyExact(width, height)];
+    byte[] green = new byte[width * height];
+    byte[] blue = new byte[width * height];
+    int[] rgb = new int[width];
+    int i = 0;
+    for (int row = 0; row < height; row++) {
+      image.getRow(row, rgb);
+      for (int value : rgb) {
+        red[i] = (byte) (value >> 16);
+        green[i] = (byte) (value >> 8);
+        blue[i] = (byte) value;
+        i++;
+      }
+    }
+    return new PlanarImage[]{new PlanarImage(width, height, red, red, red),
+        new PlanarImage(width, height, green, green, green),
+        new PlanarImage(width, height, blue, blue, blue)};
+  }
+
+  /**
+   * Combine the red channel of one image, the green channel of another and the blue channel of a
+   * third into a new planar image. The plane of a planar image is shared instead of copied, the
+   * channels of the other images are copied in one pass over their rows.
+   *
+   * @param red   image providing the red channel
+   * @param green image providing the green channel
+   * @param blue  image providing the blue channel
+   * @return the combined image
+   */
+  public static PlanarImage combine(Image red, Image green, Image blue) {
+    int width = red.getWidth();
+    int height = red.getHeight();
+    if (width != green.getWidth() || width != blue.getWidth()
+        || height != green.getHeight() || height != blue.getHeight()) {
+      throw new IllegalArgumentException("All the color images must have the same size");
+    }
+    Image[] sources = {red, green, blue};
+    byte[][] planes = new byte[3][];
+    boolean copying = false;
+    for (int c = 0; c < 3; c++) {
+      if (sources[c] instanceof PlanarImage) {
+        planes[c] = ((PlanarImage) sources[c]).sharedPlane(c);
+      } else {
+        planes[c] = new byte[Math.multiplyExact(width, height)];
+        copying = true;
+      }
+    }
+    if (copying) {
+      int[] rgb = new int[width];
+      for (int row = 0; row < height; row++) {
+        for (int c = 0; c < 3; c++) {
+          if (sources[c] instanceof PlanarImage) {
+            continue;
+          }
+          sources[c].getRow(row, rgb);
+          int shift = 16 - 8 * c;
+          byte[] plane = planes[c];
+          for (int col = 0, i = row * width; col < width; col++, i++) {
+            plane[i] = (byte) (rgb[col] >> shift);
+          }
+        }
+      }
+    }
+    PlanarImage result = new PlanarImage(width, height, planes[0], planes[1], planes[2]);
+    for (int c = 0; c < 3; c++) {
+      // Planes copied above belong to the result alone
+      result.owned[c] = !(sources[c] instanceof PlanarImage);
+    }
+    return result;
+  }
+
+  /**
+   * Create a new image of the same size over the given planes of this image, marking every plane
+   * of this image as shared.
+   */
+  private synchronized PlanarImage share(byte[] red, byte[] green, byte[] blue) {
+    owned[0] = false;
+    owned[1] = false;
+    owned[2] = false;
+    return new PlanarImage(width, height, red, green, blue);
+  }
+
+  /**
+   * Return the plane of the given channel for another image to read, marking it as shared.
+   */
+  private synchronized byte[] sharedPlane(int channel) {
+    owned[channel] = false;
+    return planes[channel];
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    int i = index(row, col);
+    return new int[]{planes[0][i] & 0xFF, planes[1][i] & 0xFF, planes[2][i] & 0xFF};
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    int i = index(row, col);
+    writablePlane(0)[i] = (byte) rgb[0];
+    writablePlane(1)[i] = (byte) rgb[1];
+    writablePlane(2)[i] = (byte) rgb[2];
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    writablePlane(Objects.checkIndex(channel, 3))[index(row, col)] = (byte) value;
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return planes[Objects.checkIndex(channel, 3)][index(row, col)] & 0xFF;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int i = index(row, col);
+    return ((planes[0][i] & 0xFF) << 16) | ((planes[1][i] & 0xFF) << 8) | (planes[2][i] & 0xFF);
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    int i = index(row, col);
+    writablePlane(0)[i] = (byte) (rgb >> 16);
+    writablePlane(1)[i] = (byte) (rgb >> 8);
+    writablePlane(2)[i] = (byte) rgb;
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    byte[] red = planes[0];
+    byte[] green = planes[1];
+    byte[] blue = planes[2];
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      int to = offset + r * width;
+      for (int c = 0; c < width; c++) {
+        int i = start + c;
+        dest[to + c] = ((red[i] & 0xFF) << 16) | ((green[i] & 0xFF) << 8) | (blue[i] & 0xFF);
+      }
+    }
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    byte[] red = writablePlane(0);
+    byte[] green = writablePlane(1);
+    byte[] blue = writablePlane(2);
+    for (int r = 0; r < height; r++) {
+      int start = (row + r) * this.width + col;
+      int from = offset + r * width;
+      for (int c = 0; c < width; c++) {
+        int rgb = src[from + c];
+        red[start + c] = (byte) (rgb >> 16);
+        green[start + c] = (byte) (rgb >> 8);
+        blue[start + c] = (byte) rgb;
+      }
+    }
+  }
+
+  /**
+   * Check that the given rectangle lies inside the image.
+   */
+  private void checkRegion(int row, int col, int width, int height) {
+    Objects.checkFromIndexSize(row, height, this.height);
+    Objects.checkFromIndexSize(col, width, this.width);
+  }
+
+  /**
+   * Return the plane of the given channel, copying it first if it is shared. Bands of rows written
+   * concurrently all get the same copy.
+   *
+   * @param channel the channel to write
+   * @return a plane only this image uses
+   */
+  private synchronized byte[] writablePlane(int channel) {
+    if (!owned[channel]) {
+      planes[channel] = planes[channel].clone();
+      owned[channel] = true;
+    }
+    return planes[channel];
+  }
+
+  private int index(int row, int col) {
+    return Objects.checkIndex(row, height) * width + Objects.checkIndex(col, width);
+  }
+}
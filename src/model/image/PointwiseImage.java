@@ -0,0 +1,152 @@
+package model.image;
+
+import java.util.Arrays;
+
+/**
+ * Lazy image that maps every channel value of its source through a 256-entry lookup table, one
+ * table per channel. Mapping a pointwise image that has not been materialized composes the tables
+ * instead of stacking views, so a chain of pointwise operations is read with one lookup per
+ * channel whatever its length. Tables that only add an offset to a channel and clamp, as brighten
+ * does, are also applied as that offset when PixelKernels runs on the Vector API.
+ */
+public class PointwiseImage extends LazyImage {
+
+  /**
+   * Returned by offsetOf for a table that is not an offset.
+   */
+  private static final int NO_OFFSET = Integer.MIN_VALUE;
+
+  private final int[] red;
+  private final int[] green;
+  private final int[] blue;
+  private final int[] offsets;
+
+  private PointwiseImage(Image source, int[] red, int[] green, int[] blue) {
+    super(source);
+    this.red = red;
+    this.green = green;
+    this.blue = blue;
+    int[] offsets = {offsetOf(red), offsetOf(green), offsetOf(blue)};
+    boolean shifts = offsets[0] != NO_OFFSET && offsets[1] != NO_OFFSET
+        && offsets[2] != NO_OFFSET;
+    this.offsets = shifts && PixelKernels.isVectorized() ? offsets : null;
+  }
+
+  /**
+   * Map every channel of an image through the same table.
+   *
+   * @param source the image to map
+   * @param table  the new value of each channel value 0..255
+   * @return the mapped view
+   */
+  public static PointwiseImage of(Image source, int[] table) {
+    return of(source, table, table, table);
+  }
+
+  /**
+   * Map the channels of an image through one table each.
+   *
+   * @param source the image to map
+   * @param red    the new value of each red value 0..255
+   * @param green  the new value of each green value 0..255
+   * @param blue   the new value of each blue value 0..255
+   * @return the mapped view
+   * @throws IllegalArgumentException if a table does not hold 256 values in 0..255
+   */
+  public static PointwiseImage of(Image source, int[] red, int[] green, int[] blue) {
+    checkTable(red);
+    checkTable(green);
+    checkTable(blue);
+    if (source instanceof PointwiseImage && !((PointwiseImage) source).isMaterialized()) {
+      PointwiseImage inner = (PointwiseImage) source;
+      return new PointwiseImage(inner.source, compose(inner.red, red),
+          compose(inner.green, green), compose(inner.blue, blue));
+    }
+    return new PointwiseImage(source, red.clone(), green.clone(), blue.clone());
+  }
+
+  /**
+   * Return a copy of the table of a channel.
+   *
+   * @param channel the channel, 0 for red, 1 for green and 2 for blue
+   * @return the table of the channel
+   */
+  public int[] getTable(int channel) {
+    switch (channel) {
+      case 0:
+        return red.clone();
+      case 1:
+        return green.clone();
+      case 2:
+        return blue.clone();
+      default:
+        throw new IndexOutOfBoundsException("Channel must be 0, 1 or 2");
+    }
+  }
+
+  private static void checkTable(int[] table) {
+    if (table == null || table.length != 256) {
+      throw new IllegalArgumentException("A lookup table must have 256 entries");
+    }
+    for (int value : table) {
+      if (value < 0 || value > 255) {
+        throw new IllegalArgumentException("Lookup table values must be between 0 and 255");
+      }
+    }
+  }
+
+  /**
+   * Return the offset d such that the table maps every value v to v + d clamped to 0..255, or
+   * NO_OFFSET if there is none.
+   */
+  private static int offsetOf(int[] table) {
+    int offset;
+    if (table[0] > 0) {
+      offset = table[0];
+    } else if (table[255] < 255) {
+      offset = table[255] - 255;
+    } else {
+      offset = table[128] - 128;
+    }
+    for (int value = 0; value < 256; value++) {
+      if (table[value] != Math.min(Math.max(value + offset, 0), 255)) {
+        return NO_OFFSET;
+      }
+    }
+    return offset;
+  }
+
+  private static int[] compose(int[] first, int[] then) {
+    int[] table = new int[256];
+    for (int i = 0; i < 256; i++) {
+      table[i] = then[first[i]];
+    }
+    return table;
+  }
+
+  @Override
+  protected boolean computesGrey() {
+    // Equal tables keep grey pixels grey
+    return Arrays.equals(red, green) && Arrays.equals(green, blue) && GreyImage.readsGrey(source);
+  }
+
+  @Override
+  protected int computeRGB(int row, int col) {
+    int rgb = source.getRGB(row, col);
+    return (red[(rgb >> 16) & 0xFF] << 16) | (green[(rgb >> 8) & 0xFF] << 8) | blue[rgb & 0xFF];
+  }
+
+  @Override
+  protected void computeRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    source.getRegion(row, col, width, height, dest, offset);
+    if (offsets != null) {
+      PixelKernels.offset(offsets, dest, offset, offset + width * height);
+      return;
+    }
+    for (int i = offset; i < offset + width * height; i++) {
+      int rgb = dest[i];
+      dest[i] = (red[(rgb >> 16) & 0xFF] << 16) | (green[(rgb >> 8) & 0xFF] << 8)
+          | blue[rgb & 0xFF];
+    }
+  }
+}
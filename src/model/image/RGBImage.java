@@ -20,53 +20,29 @@ public class RGBImage extends SimpleImage {
    * Creates a grayscale image based on the red component of the given image.
    *
    * @param image the input image from which the red component is extracted
-   * @return a new grayscale image with intensity based on the red component
+   * @return a grayscale view with intensity based on the red component
    */
   public Image redComponent(Image image) {
-    Image result = new RGBImage(width, height);
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int[] pixel = image.getPixel(i, j);
-        int[] newPixel = {pixel[0], pixel[0], pixel[0]};
-        result.setPixel(i, j, newPixel);
-      }
-    }
-    return result;
+    return new ChannelImage(image, 0);
   }
 
   /**
    * Creates a grayscale image based on the green component of the given image.
    *
    * @param image the input image from which the red component is extracted
-   * @return a new grayscale image with intensity based on the red component
+   * @return a grayscale view with intensity based on the red component
    */
   public Image greenComponent(Image image) {
-    Image result = new RGBImage(width, height);
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int[] pixel = image.getPixel(i, j);
-        int[] newPixel = {pixel[1], pixel[1], pixel[1]};
-        result.setPixel(i, j, newPixel);
-      }
-    }
-    return result;
+    return new ChannelImage(image, 1);
   }
 
   /**
    * Creates a grayscale image based on the blue component of the given image.
    *
    * @param image the input image from which the red component is extracted
-   * @return a new grayscale image with intensity based on the red component
+   * @return a grayscale view with intensity based on the red component
    */
   public Image blueComponent(Image image) {
-    Image result = new RGBImage(width, height);
-    for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int[] pixel = image.getPixel(i, j);
-        int[] newPixel = {pixel[2], pixel[2], pixel[2]};
-        result.setPixel(i, j, newPixel);
-      }
-    }
-    return result;
+    return new ChannelImage(image, 2);
   }
 }
@@ -0,0 +1,51 @@
+package model.image;
+
+/**
+ * Accelerated versions of the kernels of PixelKernels. Each method rewrites a prefix of the run
+ * of packed pixels it is given, exactly as the scalar kernel would, and returns where it stopped;
+ * PixelKernels finishes the rest.
+ */
+interface RowKernels {
+
+  /**
+   * Replace pixels by the grey of their largest channel.
+   *
+   * @param pixels the packed pixels
+   * @param from   index of the first pixel
+   * @param to     index after the last pixel
+   * @return index of the first pixel left to the caller
+   */
+  int value(int[] pixels, int from, int to);
+
+  /**
+   * Replace pixels by the grey of the truncated average of their channels.
+   *
+   * @param pixels the packed pixels
+   * @param from   index of the first pixel
+   * @param to     index after the last pixel
+   * @return index of the first pixel left to the caller
+   */
+  int intensity(int[] pixels, int from, int to);
+
+  /**
+   * Multiply pixels by a matrix in 16.16 fixed point.
+   *
+   * @param matrix the weights and offset of each channel in fixed point, row after row
+   * @param pixels the packed pixels
+   * @param from   index of the first pixel
+   * @param to     index after the last pixel
+   * @return index of the first pixel left to the caller
+   */
+  int matrix(int[] matrix, int[] pixels, int from, int to);
+
+  /**
+   * Add an offset to each channel of pixels, clamping to 0..255.
+   *
+   * @param offsets the offsets of red, green and blue
+   * @param pixels  the packed pixels
+   * @param from    index of the first pixel
+   * @param to      index after the last pixel
+   * @return index of the first pixel left to the caller
+   */
+  int offset(int[] offsets, int[] pixels, int from, int to);
+}
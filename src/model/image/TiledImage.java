@@ -0,0 +1,267 @@
+package model.image;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Image split into square tiles of packed 0xRRGGBB pixels. A tile is only allocated when a non-black
+ * pixel is written to it, missing tiles read as black. Copies share all tiles with their source and
+ * a shared tile is copied the first time one of its owners writes to it, so an edit that touches
+ * part of an image only duplicates the tiles it changes.
+ */
+public class TiledImage implements Image {
+
+  /**
+   * Tile edge length used when none is given.
+   */
+  public static final int DEFAULT_TILE_SIZE = 256;
+
+  private final int width;
+  private final int height;
+  private final int tileSize;
+  private final int tilesAcross;
+  private final int[][] tiles;
+  private final boolean[] shared;
+
+  /**
+   * Constructor of the image with the default tile size, all pixels start black.
+   *
+   * @param width  width of the image.
+   * @param height height of the image.
+   */
+  public TiledImage(int width, int height) {
+    this(width, height, DEFAULT_TILE_SIZE);
+  }
+
+  /**
+   * Constructor of the image, all pixels start black.
+   *
+   * @param width    width of the image.
+   * @param height   height of the image.
+   * @param tileSize edge length of the square tiles.
+   */
+  public TiledImage(int width, int height, int tileSize) {
+    if (width < 0 || height < 0) {
+      throw new IllegalArgumentException("Image dimensions cannot be negative");
+    }
+    if (tileSize <= 0) {
+      throw new IllegalArgumentException("Tile size must be greater than zero");
+    }
+    this.width = width;
+    this.height = height;
+    this.tileSize = tileSize;
+    this.tilesAcross = (width + tileSize - 1) / tileSize;
+    int tilesDown = (height + tileSize - 1) / tileSize;
+    this.tiles = new int[Math.multiplyExact(tilesAcross, tilesDown)][];
+    this.shared = new boolean[tiles.length];
+  }
+
+  /**
+   * Create a tiled copy of any image. Copying a tiled image shares its tiles.
+   *
+   * @param image the image to copy
+   * @return a tiled image with the same pixels
+   */
+  public static TiledImage copyOf(Image image) {
+    if (image == null) {
+      throw new IllegalArgumentException("Image cannot be null");
+    }
+    if (image instanceof TiledImage) {
+      return ((TiledImage) image).copy();
+    }
+    TiledImage result = new TiledImage(image.getWidth(), image.getHeight());
+    int[] line = new int[image.getWidth()];
+    for (int row = 0; row < image.getHeight(); row++) {
+      image.getRow(row, line);
+      result.setRow(row, line);
+    }
+    return result;
+  }
+
+  /**
+   * Create a copy of this image that shares every tile with it until one of them is written.
+   *
+   * @return the copy
+   */
+  public synchronized TiledImage copy() {
+    TiledImage copy = new TiledImage(width, height, tileSize);
+    for (int t = 0; t < tiles.length; t++) {
+      if (tiles[t] != null) {
+        shared[t] = true;
+        copy.tiles[t] = tiles[t];
+        copy.shared[t] = true;
+      }
+    }
+    return copy;
+  }
+
+  /**
+   * Return the edge length of the tiles.
+   *
+   * @return the tile size
+   */
+  public int getTileSize() {
+    return tileSize;
+  }
+
+  /**
+   * Return how many tiles currently hold pixel data, shared tiles included.
+   *
+   * @return the number of allocated tiles
+   */
+  public int getAllocatedTileCount() {
+    int count = 0;
+    for (int[] tile : tiles) {
+      if (tile != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Reset every pixel to black. Tiles only this image uses are kept and zeroed so they can be
+   * written again without allocating, shared tiles are dropped.
+   */
+  public synchronized void clear() {
+    for (int t = 0; t < tiles.length; t++) {
+      if (shared[t]) {
+        tiles[t] = null;
+        shared[t] = false;
+      } else if (tiles[t] != null) {
+        Arrays.fill(tiles[t], 0);
+      }
+    }
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public int[] getPixel(int row, int col) {
+    int rgb = getRGB(row, col);
+    return new int[]{(rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF};
+  }
+
+  @Override
+  public void setPixel(int row, int col, int[] rgb) {
+    setRGB(row, col, ((rgb[0] & 0xFF) << 16) | ((rgb[1] & 0xFF) << 8) | (rgb[2] & 0xFF));
+  }
+
+  @Override
+  public void setPixel(int row, int col, int channel, int value) {
+    int shift = 16 - 8 * Objects.checkIndex(channel, 3);
+    setRGB(row, col, (getRGB(row, col) & ~(0xFF << shift)) | ((value & 0xFF) << shift));
+  }
+
+  @Override
+  public int getChannel(int row, int col, int channel) {
+    return (getRGB(row, col) >> (16 - 8 * Objects.checkIndex(channel, 3))) & 0xFF;
+  }
+
+  @Override
+  public int getRGB(int row, int col) {
+    int[] tile = tiles[tileIndex(row, col)];
+    return tile == null ? 0 : tile[(row % tileSize) * tileSize + col % tileSize];
+  }
+
+  @Override
+  public void setRGB(int row, int col, int rgb) {
+    int t = tileIndex(row, col);
+    if (tiles[t] == null && (rgb & 0xFFFFFF) == 0) {
+      return;
+    }
+    writableTile(t)[(row % tileSize) * tileSize + col % tileSize] = rgb & 0xFFFFFF;
+  }
+
+  @Override
+  public void getRegion(int row, int col, int width, int height, int[] dest, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, dest.length);
+    for (int r = row; r < row + height; r++) {
+      int tileBase = (r / tileSize) * tilesAcross;
+      int inTile = (r % tileSize) * tileSize;
+      for (int c = col; c < col + width; ) {
+        int start = c % tileSize;
+        int length = Math.min(tileSize - start, col + width - c);
+        int[] tile = tiles[tileBase + c / tileSize];
+        if (tile == null) {
+          Arrays.fill(dest, offset, offset + length, 0);
+        } else {
+          System.arraycopy(tile, inTile + start, dest, offset, length);
+        }
+        offset += length;
+        c += length;
+      }
+    }
+  }
+
+  @Override
+  public void setRegion(int row, int col, int width, int height, int[] src, int offset) {
+    checkRegion(row, col, width, height);
+    Objects.checkFromIndexSize(offset, width * height, src.length);
+    for (int r = row; r < row + height; r++) {
+      int tileBase = (r / tileSize) * tilesAcross;
+      int inTile = (r % tileSize) * tileSize;
+      for (int c = col; c < col + width; ) {
+        int start = c % tileSize;
+        int length = Math.min(tileSize - start, col + width - c);
+        int t = tileBase + c / tileSize;
+        if (tiles[t] != null || !isBlack(src, offset, length)) {
+          int[] tile = writableTile(t);
+          for (int i = 0; i < length; i++) {
+            tile[inTile + start + i] = src[offset + i] & 0xFFFFFF;
+          }
+        }
+        offset += length;
+        c += length;
+      }
+    }
+  }
+
+  private static boolean isBlack(int[] values, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      if ((values[i] & 0xFFFFFF) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the tile with the given index ready to be written, allocating it if it is missing and
+   * copying it if it is shared.
+   *
+   * @param t index of the tile
+   * @return a tile only this image uses
+   */
+  private synchronized int[] writableTile(int t) {
+    if (tiles[t] == null) {
+      tiles[t] = new int[tileSize * tileSize];
+    } else if (shared[t]) {
+      tiles[t] = tiles[t].clone();
+      shared[t] = false;
+    }
+    return tiles[t];
+  }
+
+  private int tileIndex(int row, int col) {
+    return (Objects.checkIndex(row, height) / tileSize) * tilesAcross
+        + Objects.checkIndex(col, width) / tileSize;
+  }
+
+  /**
+   * Check that the given rectangle lies inside the image.
+   */
+  private void checkRegion(int row, int col, int width, int height) {
+    Objects.checkFromIndexSize(row, height, this.height);
+    Objects.checkFromIndexSize(col, width, this.width);
+  }
+}
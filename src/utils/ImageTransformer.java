@@ -2,7 +2,7 @@ package utils;
 
 import java.awt.image.BufferedImage;
 import model.image.Image;
-import model.image.SimpleImage;
+import model.image.ImageFactory;
 
 /**
  * The ImageTransformer class provides utility methods for transforming between BufferedImage and
@@ -12,9 +12,8 @@ import model.image.SimpleImage;
 public class ImageTransformer {
 
   /**
-   * Transforms a BufferedImage into a custom Image object. This method iterates over the pixels of
-   * the given BufferedImage and converts each pixel to an RGB array, which is set in a newly
-   * created Image object.
+   * Transforms a BufferedImage into a custom Image object. This method copies the pixels of the
+   * given BufferedImage row by row into a newly created Image object.
    *
    * @param bufferedImage The BufferedImage to be transformed.
    * @return A new Image object containing the same pixel data as the BufferedImage.
@@ -22,13 +21,11 @@ public class ImageTransformer {
   public static Image transformBufferImageToImage(BufferedImage bufferedImage) {
     int height = bufferedImage.getHeight();
     int width = bufferedImage.getWidth();
-    Image img = new SimpleImage(width, height);
+    Image img = ImageFactory.create(width, height);
+    int[] line = new int[width];
     for (int i = 0; i < height; i++) {
-      for (int j = 0; j < width; j++) {
-        int rgb = bufferedImage.getRGB(j, i);
-        int[] pixel = {(rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF};
-        img.setPixel(i, j, pixel);
-      }
+      bufferedImage.getRGB(0, i, width, 1, line, 0, width);
+      img.setRow(i, line);
     }
     return img;
   }
@@ -50,19 +47,18 @@ public class ImageTransformer {
 
   /**
    * Helper method to assist in transforming an Image object into a BufferedImage.This method is
-   * called internally to transfer pixel data from an Image object to a BufferedImage by converting
-   * each pixel's RGB values and setting them.
+   * called internally to transfer pixel data from an Image object to a BufferedImage one row of
+   * packed RGB values at a time.
    *
    * @param img         The Image object whose pixels are to be transferred.
    * @param bufferImage The BufferedImage to which pixel data will be written.
    */
   public static void transformHelperImageToBuffer(Image img, BufferedImage bufferImage) {
+    int width = img.getWidth();
+    int[] line = new int[width];
     for (int i = 0; i < img.getHeight(); i++) {
-      for (int j = 0; j < img.getWidth(); j++) {
-        int[] pixel = img.getPixel(i, j);
-        int rgb = (pixel[0] << 16) | (pixel[1] << 8) | pixel[2];
-        bufferImage.setRGB(j, i, rgb);
-      }
+      img.getRow(i, line);
+      bufferImage.setRGB(0, i, width, 1, line, 0, width);
     }
   }
 }
@@ -7,7 +7,7 @@ import java.io.IOException;
 import model.image.Image;
 
 import java.io.BufferedReader;
-import model.image.SimpleImage;
+import model.image.ImageFactory;
 
 /**
  * PPMImageHandler is a concrete implementation of the ImageHandler interface
@@ -37,14 +37,16 @@ public class PPMImageHandler implements ImageHandler {
       int height = Integer.parseInt(dimensions[1]);
       reader.readLine(); // Skip maxVal (assuming 255)
 
-      Image img = new SimpleImage(width, height);
+      Image img = ImageFactory.create(width, height);
+      int[] pixels = new int[width];
       for (int i = 0; i < height; i++) {
         for (int j = 0; j < width; j++) {
           int r = Integer.parseInt(reader.readLine());
           int g = Integer.parseInt(reader.readLine());
           int b = Integer.parseInt(reader.readLine());
-          img.setPixel(i, j, new int[]{r, g, b});
+          pixels[j] = (r << 16) | (g << 8) | b;
         }
+        img.setRow(i, pixels);
       }
       return img;
     } catch (IOException e) {
@@ -59,11 +61,17 @@ public class PPMImageHandler implements ImageHandler {
       writer.write("P3\n");
       writer.write(img.getWidth() + " " + img.getHeight() + "\n");
       writer.write("255\n");
+      int[] line = new int[img.getWidth()];
+      StringBuilder text = new StringBuilder();
       for (int i = 0; i < img.getHeight(); i++) {
-        for (int j = 0; j < img.getWidth(); j++) {
-          int[] pixel = img.getPixel(i, j);
-          writer.write( pixel[0] + "\n" + pixel[1] + "\n" + pixel[2] + "\n");
+        img.getRow(i, line);
+        text.setLength(0);
+        for (int rgb : line) {
+          text.append((rgb >> 16) & 0xFF).append('\n')
+              .append((rgb >> 8) & 0xFF).append('\n')
+              .append(rgb & 0xFF).append('\n');
         }
+        writer.write(text.toString());
       }
     } catch (IOException e) {
       System.out.println("Error saving PPM image: " + e.getMessage());
@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for AreaDownscaler and the area-averaging operations of ImageModel.
+ */
+public class AreaDownscalerTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = TestImages.random(13, 7, 5);
+  }
+
+  /**
+   * Round the average of a channel over a block of the image.
+   */
+  private int blockAverage(int top, int left, int bottom, int right, int channel) {
+    int sum = 0;
+    for (int row = top; row < bottom; row++) {
+      for (int col = left; col < right; col++) {
+        sum += image.getPixel(row, col)[channel];
+      }
+    }
+    int count = (bottom - top) * (right - left);
+    return (sum + count / 2) / count;
+  }
+
+  @Test
+  public void testWholeBlocks() {
+    Image small = model.areaDownscale(image, 13, 1);
+    for (int col = 0; col < 13; col++) {
+      for (int c = 0; c < 3; c++) {
+        assertEquals(blockAverage(0, col, 7, col + 1, c), small.getPixel(0, col)[c]);
+      }
+    }
+  }
+
+  @Test
+  public void testPartlyCoveredPixels() {
+    Image row = new PackedImage(3, 1);
+    row.setRow(0, new int[]{0x000000, 0x5A5A5A, 0xB4B4B4});
+    Image small = model.areaDownscale(row, 2, 1);
+    // The middle pixel counts half for each output pixel: 45 / 1.5 and (45 + 180) / 1.5
+    assertArrayEquals(new int[]{30, 30, 30}, small.getPixel(0, 0));
+    assertArrayEquals(new int[]{150, 150, 150}, small.getPixel(0, 1));
+  }
+
+  @Test
+  public void testPyramid() {
+    List<Image> levels = model.pyramid(image, 3);
+    assertEquals(3, levels.size());
+    int[][] sizes = {{7, 4}, {4, 2}, {2, 1}};
+    for (int k = 0; k < 3; k++) {
+      Image level = levels.get(k);
+      assertArrayEquals(sizes[k], new int[]{level.getWidth(), level.getHeight()});
+      int block = 2 << k;
+      for (int row = 0; row < level.getHeight(); row++) {
+        for (int col = 0; col < level.getWidth(); col++) {
+          for (int c = 0; c < 3; c++) {
+            assertEquals(blockAverage(row * block, col * block, Math.min(row * block + block, 7),
+                Math.min(col * block + block, 13), c), level.getPixel(row, col)[c]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidSizes() {
+    assertThrows(IllegalArgumentException.class, () -> model.areaDownscale(image, 14, 7));
+    assertThrows(IllegalArgumentException.class, () -> model.areaDownscale(image, 0, 7));
+    assertThrows(IllegalArgumentException.class, () -> model.pyramid(image, 0));
+  }
+}
@@ -0,0 +1,110 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.image.ColorMatrixImage;
+import model.image.Image;
+import model.image.LazyImage;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for ColorMatrixImage and the colour matrix operations of ImageModel.
+ */
+public class ColorMatrixImageTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = new PackedImage(3, 2);
+    image.setRow(0, new int[]{0xC86432, 0x0A141E, 0xFF0000});
+    image.setRow(1, new int[]{0xFFFFFF, 0x808080, 0x123456});
+  }
+
+  @Test
+  public void testChainRunsInOnePass() {
+    Image sepia = model.sepia(image);
+    Image luma = model.luma(sepia);
+    assertSame(image, ((ColorMatrixImage) luma).getSource());
+    // Sepia clamps, so luma stays a second stage of the same pass
+    assertEquals(2, ((ColorMatrixImage) luma).getStageCount());
+
+    Image stored = ((LazyImage) model.sepia(image)).materialize();
+    int[] expected = new int[6];
+    model.luma(stored).getRegion(0, 0, 3, 2, expected, 0);
+    int[] actual = new int[6];
+    luma.getRegion(0, 0, 3, 2, actual, 0);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testMatricesAreMultipliedWhenExact() {
+    Image red = model.redComponent(image);
+    Image grey = model.toGreyscale(red);
+    assertSame(image, ((ColorMatrixImage) grey).getSource());
+    assertEquals(1, ((ColorMatrixImage) grey).getStageCount());
+    assertArrayEquals(new int[]{200, 200, 200}, grey.getPixel(0, 0));
+    assertArrayEquals(new int[]{18, 18, 18}, grey.getPixel(1, 2));
+
+    Image component = model.greenComponent(model.sepia(image));
+    assertEquals(1, ((ColorMatrixImage) component).getStageCount());
+    int[] sepia = model.sepia(image).getPixel(1, 2);
+    assertArrayEquals(new int[]{sepia[1], sepia[1], sepia[1]}, component.getPixel(1, 2));
+  }
+
+  @Test
+  public void testCustomAffineMatrix() {
+    Image inverted = model.colorMatrix(image,
+        new double[][]{{-1, 0, 0, 255}, {0, -1, 0, 255}, {0, 0, -1, 255}});
+    assertArrayEquals(new int[]{55, 155, 205}, inverted.getPixel(0, 0));
+    Image again = model.colorMatrix(inverted,
+        new double[][]{{-1, 0, 0, 255}, {0, -1, 0, 255}, {0, 0, -1, 255}});
+    assertEquals(1, ((ColorMatrixImage) again).getStageCount());
+    assertArrayEquals(image.getPixel(0, 0), again.getPixel(0, 0));
+    assertArrayEquals(image.getPixel(1, 2), again.getPixel(1, 2));
+  }
+
+  @Test
+  public void testFixedPointWithinOneOfDouble() {
+    double[][] sepia = {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+    Image grid = new PackedImage(256, 64);
+    int[] line = new int[256];
+    for (int row = 0; row < 64; row++) {
+      for (int col = 0; col < 256; col++) {
+        line[col] = (col << 16) | ((row * 4) << 8) | ((col * 7 + row * 13) & 0xFF);
+      }
+      grid.setRow(row, line);
+    }
+    Image result = model.sepia(grid);
+    for (int row = 0; row < 64; row++) {
+      for (int col = 0; col < 256; col++) {
+        int[] in = grid.getPixel(row, col);
+        int[] out = result.getPixel(row, col);
+        for (int c = 0; c < 3; c++) {
+          double exact = sepia[c][0] * in[0] + sepia[c][1] * in[1] + sepia[c][2] * in[2];
+          int expected = (int) Math.min(Math.max(exact, 0), 255);
+          assertTrue(Math.abs(out[c] - expected) <= 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidMatrix() {
+    assertThrows(IllegalArgumentException.class,
+        () -> model.colorMatrix(image, new double[][]{{1, 0, 0}, {0, 1, 0}}));
+    assertThrows(IllegalArgumentException.class,
+        () -> model.colorMatrix(image, new double[][]{{1, 0}, {0, 1, 0}, {0, 0, 1}}));
+  }
+}
@@ -0,0 +1,220 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ConvolutionEngine;
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for ConvolutionEngine and ImageModel.convolve.
+ */
+public class ConvolutionEngineTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = TestImages.random(9, 6, 3);
+  }
+
+  /**
+   * Convolve one pixel with a clamp on every tap, truncating every product as the direct strategy
+   * does.
+   */
+  private int[] directReference(double[][] kernel, int row, int col) {
+    int half = kernel.length / 2;
+    int[] result = new int[3];
+    for (int c = 0; c < 3; c++) {
+      int sum = 0;
+      for (int ki = 0; ki < kernel.length; ki++) {
+        for (int kj = 0; kj < kernel.length; kj++) {
+          int r = Math.min(Math.max(row + ki - half, 0), image.getHeight() - 1);
+          int k = Math.min(Math.max(col + kj - half, 0), image.getWidth() - 1);
+          sum += (int) (image.getPixel(r, k)[c] * kernel[ki][kj]);
+        }
+      }
+      result[c] = Math.min(Math.max(sum, 0), 255);
+    }
+    return result;
+  }
+
+  /**
+   * Convolve one pixel with a clamp on every tap, truncating the exact sum once.
+   */
+  private int[] reference(double[][] kernel, int row, int col) {
+    int half = kernel.length / 2;
+    int[] result = new int[3];
+    for (int c = 0; c < 3; c++) {
+      double sum = 0;
+      for (int ki = 0; ki < kernel.length; ki++) {
+        for (int kj = 0; kj < kernel.length; kj++) {
+          int r = Math.min(Math.max(row + ki - half, 0), image.getHeight() - 1);
+          int k = Math.min(Math.max(col + kj - half, 0), image.getWidth() - 1);
+          sum += image.getPixel(r, k)[c] * kernel[ki][kj];
+        }
+      }
+      result[c] = (int) Math.min(Math.max(sum + 1e-6, 0), 255);
+    }
+    return result;
+  }
+
+  @Test
+  public void testDirectKernelMatchesReference() {
+    double[][] kernel = {{0, -1, 0, 0.5, 0}, {-1, 2, 0, 0, 0}, {0, 0, 1.5, 0, 0},
+        {0.25, 0, 0, -0.5, 0}, {0, 0, 0, 0, 0.125}};
+    assertFalse(new ConvolutionEngine(kernel).isSeparable());
+    Image result = model.convolve(image, kernel);
+    for (int row = 0; row < image.getHeight(); row++) {
+      for (int col = 0; col < image.getWidth(); col++) {
+        assertArrayEquals(directReference(kernel, row, col), result.getPixel(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testSeparableKernel() {
+    double[][] kernel = {{1, 2, 1}, {2, 4, 2}, {1, 2, 1}};
+    for (double[] row : kernel) {
+      for (int j = 0; j < row.length; j++) {
+        row[j] /= 16;
+      }
+    }
+    ConvolutionEngine engine = new ConvolutionEngine(kernel);
+    assertTrue(engine.isSeparable());
+    Image separable = engine.apply(image);
+    Image direct = new PackedImage(image.getWidth(), image.getHeight());
+    engine.apply(image, direct, 0, image.getHeight(), ConvolutionEngine.Strategy.DIRECT);
+    // The built-in blur truncates every product like the direct strategy
+    Image blurred = model.blur(image);
+    for (int row = 0; row < image.getHeight(); row++) {
+      for (int col = 0; col < image.getWidth(); col++) {
+        assertArrayEquals(reference(kernel, row, col), separable.getPixel(row, col));
+        assertArrayEquals(blurred.getPixel(row, col), direct.getPixel(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testKernelNarrowerThanImage() {
+    Image narrow = new PackedImage(2, 3);
+    narrow.setRGB(1, 1, 0x804020);
+    double[][] identity = new double[7][7];
+    identity[3][3] = 1;
+    Image result = model.convolve(narrow, identity);
+    assertArrayEquals(new int[]{128, 64, 32}, result.getPixel(1, 1));
+    assertArrayEquals(new int[]{0, 0, 0}, result.getPixel(0, 0));
+  }
+
+  @Test
+  public void testStrategies() {
+    double[][] kernel = new double[7][7];
+    for (int i = 0; i < 7; i++) {
+      for (int j = 0; j < 7; j++) {
+        kernel[i][j] = ((i * 7 + j) % 5 - 1.5) / 20;
+      }
+    }
+    ConvolutionEngine engine = new ConvolutionEngine(kernel);
+    Image direct = new PackedImage(image.getWidth(), image.getHeight());
+    Image fft = new PackedImage(image.getWidth(), image.getHeight());
+    engine.apply(image, direct, 0, image.getHeight(), ConvolutionEngine.Strategy.DIRECT);
+    engine.apply(image, fft, 0, image.getHeight(), ConvolutionEngine.Strategy.FFT);
+    ConvolutionEngine gaussian = ConvolutionEngine.gaussian(1.5);
+    Image separable = new PackedImage(image.getWidth(), image.getHeight());
+    Image gaussianFft = new PackedImage(image.getWidth(), image.getHeight());
+    gaussian.apply(image, separable, 0, image.getHeight(), ConvolutionEngine.Strategy.SEPARABLE);
+    gaussian.apply(image, gaussianFft, 0, image.getHeight(), ConvolutionEngine.Strategy.FFT);
+    for (int row = 0; row < image.getHeight(); row++) {
+      for (int col = 0; col < image.getWidth(); col++) {
+        assertArrayEquals(directReference(kernel, row, col), direct.getPixel(row, col));
+        assertArrayEquals(reference(kernel, row, col), fft.getPixel(row, col));
+        for (int c = 0; c < 3; c++) {
+          int difference = gaussianFft.getPixel(row, col)[c] - separable.getPixel(row, col)[c];
+          assertTrue(difference == 0 || difference == 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTilesMatchReference() {
+    double[][] kernel = new double[5][5];
+    double[][] binomial = new double[5][5];
+    double[] weights = {1, 4, 6, 4, 1};
+    for (int i = 0; i < 5; i++) {
+      for (int j = 0; j < 5; j++) {
+        kernel[i][j] = ((i * 5 + j) % 4 - 1.0) / 10;
+        binomial[i][j] = weights[i] * weights[j] / 256;
+      }
+    }
+    for (int tileWidth : new int[]{1, 2, 4, 7}) {
+      Image direct = new PackedImage(image.getWidth(), image.getHeight());
+      new ConvolutionEngine(kernel, tileWidth)
+          .apply(image, direct, 0, image.getHeight(), ConvolutionEngine.Strategy.DIRECT);
+      Image separable = new PackedImage(image.getWidth(), image.getHeight());
+      new ConvolutionEngine(binomial, tileWidth)
+          .apply(image, separable, 0, image.getHeight(), ConvolutionEngine.Strategy.SEPARABLE);
+      for (int row = 0; row < image.getHeight(); row++) {
+        for (int col = 0; col < image.getWidth(); col++) {
+          assertArrayEquals(directReference(kernel, row, col), direct.getPixel(row, col));
+          assertArrayEquals(reference(binomial, row, col), separable.getPixel(row, col));
+        }
+      }
+    }
+    assertThrows(IllegalArgumentException.class, () -> new ConvolutionEngine(kernel, -1));
+  }
+
+  @Test
+  public void testStrategySelection() {
+    assertEquals(ConvolutionEngine.Strategy.DIRECT,
+        new ConvolutionEngine(new double[5][5]).chooseStrategy(1000, 1000));
+    assertEquals(ConvolutionEngine.Strategy.SEPARABLE,
+        ConvolutionEngine.gaussian(2).chooseStrategy(1000, 1000));
+    assertEquals(ConvolutionEngine.Strategy.FFT,
+        ConvolutionEngine.gaussian(12).chooseStrategy(1000, 1000));
+    assertEquals(ConvolutionEngine.Strategy.FFT,
+        new ConvolutionEngine(new double[21][21]).chooseStrategy(1000, 1000));
+  }
+
+  @Test
+  public void testGaussianBlurKeepsFlatImage() {
+    Image flat = new PackedImage(40, 30);
+    for (int row = 0; row < 30; row++) {
+      for (int col = 0; col < 40; col++) {
+        flat.setRGB(row, col, 0x648CC8);
+      }
+    }
+    Image fft = new PackedImage(40, 30);
+    ConvolutionEngine.gaussian(9).apply(flat, fft, 0, 30, ConvolutionEngine.Strategy.FFT);
+    assertArrayEquals(new int[]{100, 140, 200}, fft.getPixel(0, 0));
+    assertArrayEquals(new int[]{100, 140, 200}, fft.getPixel(17, 23));
+    // The separable strategy truncates its sum as it is, the weights add up to 1 only nearly
+    Image blurred = model.gaussianBlur(flat, 9);
+    for (int c = 0; c < 3; c++) {
+      int expected = flat.getPixel(17, 23)[c];
+      assertTrue(blurred.getPixel(17, 23)[c] >= expected - 1);
+      assertTrue(blurred.getPixel(17, 23)[c] <= expected);
+    }
+  }
+
+  @Test
+  public void testInvalidKernel() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConvolutionEngine(new double[][]{{1, 1}, {1, 1}}));
+    assertThrows(IllegalArgumentException.class,
+        () -> new ConvolutionEngine(new double[][]{{1, 1, 1}, {1}, {1, 1, 1}}));
+    assertThrows(IllegalArgumentException.class,
+        () -> model.convolve(null, new double[][]{{1}}));
+  }
+}
@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import model.ImageModel;
+import model.ImgModel;
+import model.ParallelImageModel;
+import model.image.FloatImage;
+import model.image.Image;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for FloatImage and the float versions of the model operations.
+ */
+public class FloatImageTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = new PackedImage(3, 2);
+    image.setRow(0, new int[]{0xC86432, 0x0A141E, 0xFFFFFF});
+    image.setRow(1, new int[]{0x000000, 0x808080, 0x123456});
+  }
+
+  @Test
+  public void testQuantizeOnRead() {
+    FloatImage floatImage = FloatImage.copyOf(image);
+    floatImage.getPlane(0)[0] = 300.7f;
+    floatImage.getPlane(1)[0] = -12f;
+    floatImage.getPlane(2)[0] = 49.9f;
+    assertArrayEquals(new int[]{255, 0, 49}, floatImage.getPixel(0, 0));
+    assertEquals(0xFF0031, floatImage.getRGB(0, 0));
+    assertEquals(image.getRGB(1, 2), floatImage.getRGB(1, 2));
+  }
+
+  @Test
+  public void testChainKeepsPrecision() {
+    Image floatImage = FloatImage.copyOf(image);
+    Image floatResult = model.brighten(model.brighten(floatImage, 100), -100);
+    Image intResult = model.brighten(model.brighten(image, 100), -100);
+
+    assertTrue(floatResult instanceof FloatImage);
+    // 200 + 100 is clamped to 255 in int, float keeps 300 and comes back to 200
+    assertArrayEquals(new int[]{200, 100, 50}, floatResult.getPixel(0, 0));
+    assertArrayEquals(new int[]{155, 100, 50}, intResult.getPixel(0, 0));
+  }
+
+  @Test
+  public void testSingleOperationsMatchInt() {
+    FloatImage floatImage = FloatImage.copyOf(image);
+    Image[] floatResults = {model.brighten(floatImage, 30), model.value(floatImage),
+        model.redComponent(floatImage), model.flipHorizontal(floatImage),
+        model.flipVertical(floatImage), model.adjustLevels(floatImage, 0, 128, 255)};
+    Image[] intResults = {model.brighten(image, 30), model.value(image),
+        model.redComponent(image), model.flipHorizontal(image), model.flipVertical(image),
+        model.adjustLevels(image, 0, 128, 255)};
+    for (int i = 0; i < floatResults.length; i++) {
+      assertTrue(floatResults[i] instanceof FloatImage);
+      for (int row = 0; row < 2; row++) {
+        for (int col = 0; col < 3; col++) {
+          assertArrayEquals(intResults[i].getPixel(row, col), floatResults[i].getPixel(row, col));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBlurOfFlatImage() {
+    FloatImage flat = new FloatImage(4, 4);
+    Arrays.fill(flat.getPlane(0), 10.5f);
+    Image blurred = model.blur(flat);
+    assertEquals(10.5f, ((FloatImage) blurred).getPlane(0)[5], 1e-4);
+    assertArrayEquals(new int[]{10, 0, 0}, blurred.getPixel(3, 3));
+  }
+
+  @Test
+  public void testParallelBandsMatchSerial() {
+    FloatImage large = FloatImage.copyOf(TestImages.random(37, 211, 5));
+    ImgModel parallel = new ParallelImageModel(4);
+    ImgModel[] models = {model, parallel};
+    FloatImage[][] results = new FloatImage[2][];
+    for (int m = 0; m < 2; m++) {
+      ImgModel current = models[m];
+      results[m] = new FloatImage[]{(FloatImage) current.brighten(large, 30),
+          (FloatImage) current.sepia(large), (FloatImage) current.value(large),
+          (FloatImage) current.intensity(large), (FloatImage) current.greenComponent(large),
+          (FloatImage) current.flipHorizontal(large), (FloatImage) current.flipVertical(large),
+          (FloatImage) current.adjustLevels(large, 20, 100, 230),
+          (FloatImage) current.blur(large), (FloatImage) current.sharpen(large),
+          (FloatImage) current.gaussianBlur(large, 4),
+          (FloatImage) current.combineImage(large, current.flipVertical(large), large)};
+    }
+    for (int i = 0; i < results[0].length; i++) {
+      for (int c = 0; c < 3; c++) {
+        assertArrayEquals(results[0][i].getPlane(c), results[1][i].getPlane(c));
+      }
+    }
+    FloatImage flipped = FloatImage.copyOf(large);
+    parallel.flipVerticalInPlace(flipped);
+    assertArrayEquals(results[0][6].getPlane(1), flipped.getPlane(1));
+  }
+
+  @Test
+  public void testCombineOfDifferentSizes() {
+    FloatImage small = FloatImage.copyOf(image);
+    FloatImage wide = new FloatImage(4, 2);
+    assertThrows(IllegalArgumentException.class, () -> model.combineImage(small, wide, small));
+    assertThrows(IllegalArgumentException.class, () -> model.combineImage(small, small, wide));
+  }
+}
@@ -0,0 +1,90 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.ParallelImageModel;
+import model.image.GreyImage;
+import model.image.Image;
+import model.image.LazyImage;
+import model.image.TiledImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for GreyImage and the greyscale operations returning it.
+ */
+public class GreyImageTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = TestImages.random(31, 43, 4);
+  }
+
+  @Test
+  public void testReadsAsRgb() {
+    GreyImage grey = new GreyImage(2, 1);
+    grey.setPixel(0, 0, new int[]{77, 77, 77});
+    grey.setRGB(0, 1, 0x090909);
+    assertArrayEquals(new int[]{77, 77, 77}, grey.getPixel(0, 0));
+    assertEquals(0x090909, grey.getRGB(0, 1));
+    assertEquals(77, grey.getChannel(0, 0, 2));
+    assertTrue(grey.isGrey());
+  }
+
+  @Test
+  public void testColourWritePromotes() {
+    GreyImage grey = new GreyImage(2, 2);
+    grey.setRow(0, new int[]{0x101010, 0x202020});
+    grey.setRow(1, new int[]{0x303030, 0x404040});
+    grey.setPixel(1, 0, 1, 99);
+    assertFalse(grey.isGrey());
+    assertArrayEquals(new int[]{0x30, 99, 0x30}, grey.getPixel(1, 0));
+    assertArrayEquals(new int[]{0x101010, 0x202020, 0x306330, 0x404040}, TestImages.pixels(grey));
+  }
+
+  @Test
+  public void testGreyOperationsStoreOnePlane() {
+    assertTrue(model.value(image) instanceof GreyImage);
+    assertTrue(model.intensity(image) instanceof GreyImage);
+    for (Image view : new Image[]{model.luma(image), model.toGreyscale(image),
+        model.redComponent(image), model.brighten(model.blueComponent(image), 20),
+        model.flipVertical(model.luma(image))}) {
+      int[] expected = TestImages.pixels(view);
+      Image materialized = ((LazyImage) view).materialize();
+      assertTrue(materialized instanceof GreyImage);
+      assertArrayEquals(expected, TestImages.pixels(materialized));
+    }
+    // Colour results still materialize into colour images
+    assertFalse(((LazyImage) model.sepia(model.luma(image))).materialize() instanceof GreyImage);
+  }
+
+  @Test
+  public void testTiledSourceStaysTiled() {
+    TiledImage tiled = new TiledImage(image.getWidth(), image.getHeight(), 8);
+    tiled.setRegion(0, 0, image.getWidth(), image.getHeight(), TestImages.pixels(image), 0);
+    Image value = model.value(tiled);
+    assertTrue(value instanceof TiledImage);
+    assertArrayEquals(TestImages.pixels(model.value(image)), TestImages.pixels(value));
+    assertTrue(((LazyImage) model.luma(tiled)).materialize() instanceof TiledImage);
+  }
+
+  @Test
+  public void testConcurrentPromotion() {
+    Image grey = model.value(image);
+    double[][] sepia = {{0.393, 0.769, 0.189}, {0.349, 0.686, 0.168}, {0.272, 0.534, 0.131}};
+    int[] expected = TestImages.pixels(model.colorMatrix(grey, sepia));
+    new ParallelImageModel(4).colorMatrixInPlace(grey, sepia);
+    assertFalse(((GreyImage) grey).isGrey());
+    assertArrayEquals(expected, TestImages.pixels(grey));
+  }
+}
@@ -0,0 +1,56 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import model.ImageModel;
+import model.image.Image;
+import model.image.ImagePool;
+import model.image.PackedImage;
+import model.image.PlanarImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for ImagePool.
+ */
+public class ImagePoolTest {
+
+  @Test
+  public void testReleasedImageIsReusedCleared() {
+    ImagePool pool = new ImagePool(2, Long.MAX_VALUE);
+    assertNull(pool.acquire(PackedImage.class, 3, 3));
+
+    PackedImage image = new PackedImage(3, 3);
+    image.setPixel(1, 1, new int[]{9, 9, 9});
+    assertTrue(pool.release(image, Collections.emptyList()));
+
+    assertNull(pool.acquire(PackedImage.class, 3, 4));
+    PackedImage reused = pool.acquire(PackedImage.class, 3, 3);
+    assertSame(image, reused);
+    assertArrayEquals(new int[]{0, 0, 0}, reused.getPixel(1, 1));
+    assertNull(pool.acquire(PackedImage.class, 3, 3));
+  }
+
+  @Test
+  public void testImageStillInUseIsNotReleased() {
+    ImagePool pool = new ImagePool(2, Long.MAX_VALUE);
+    PackedImage image = new PackedImage(2, 2);
+    Image view = new ImageModel().flipHorizontal(image);
+
+    assertFalse(pool.release(image, List.of(image)));
+    assertFalse(pool.release(image, List.of(view)));
+    assertTrue(pool.release(image, List.of(new PackedImage(2, 2))));
+  }
+
+  @Test
+  public void testLimits() {
+    ImagePool pool = new ImagePool(1, 40);
+    assertTrue(pool.release(new PackedImage(2, 2), Collections.emptyList()));
+    assertFalse(pool.release(new PackedImage(2, 2), Collections.emptyList()));
+    assertFalse(pool.release(new PackedImage(4, 4), Collections.emptyList()));
+    assertFalse(pool.release(new PlanarImage(2, 2), Collections.emptyList()));
+  }
+}
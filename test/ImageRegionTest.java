@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import model.image.Image;
+import model.image.OffHeapImage;
+import model.image.PackedImage;
+import model.image.PlanarImage;
+import model.image.SimpleImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the bulk row and region access of every Image implementation.
+ */
+public class ImageRegionTest {
+
+  private Image[] images() {
+    return new Image[]{new SimpleImage(4, 3), new PackedImage(4, 3), new PlanarImage(4, 3),
+        new OffHeapImage(4, 3)};
+  }
+
+  @Test
+  public void testRowRoundTrip() {
+    for (Image image : images()) {
+      int[] row = {0x010203, 0xFF0000, 0x00FF00, 0x0000FF};
+      image.setRow(1, row);
+      int[] read = new int[4];
+      image.getRow(1, read);
+      assertArrayEquals(row, read);
+      assertArrayEquals(new int[]{1, 2, 3}, image.getPixel(1, 0));
+      assertEquals(255, image.getChannel(1, 2, 1));
+      assertEquals(0x0000FF, image.getRGB(1, 3));
+    }
+  }
+
+  @Test
+  public void testRegionWithOffset() {
+    for (Image image : images()) {
+      int[] src = {-1, 0x111111, 0x222222, 0x333333, 0x444444};
+      image.setRegion(1, 2, 2, 2, src, 1);
+      int[] dest = new int[6];
+      image.getRegion(0, 1, 3, 2, dest, 0);
+      assertArrayEquals(new int[]{0, 0, 0, 0, 0x111111, 0x222222}, dest);
+      assertArrayEquals(new int[]{0x44, 0x44, 0x44}, image.getPixel(2, 3));
+    }
+  }
+
+  @Test
+  public void testSetRgbIgnoresAlpha() {
+    for (Image image : images()) {
+      image.setRGB(0, 0, 0xFF102030);
+      assertEquals(0x102030, image.getRGB(0, 0));
+    }
+  }
+
+  @Test
+  public void testRegionOutOfBounds() {
+    for (Image image : images()) {
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> image.getRegion(2, 0, 4, 2, new int[8], 0));
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> image.setRegion(0, 0, 4, 1, new int[3], 0));
+    }
+  }
+}
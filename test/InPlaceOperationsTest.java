@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import model.ImageModel;
+import model.ImgModel;
+import model.ParallelImageModel;
+import model.image.FloatImage;
+import model.image.Image;
+import model.image.PlanarImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the in place operations of ImageModel.
+ */
+public class InPlaceOperationsTest {
+
+  private ImgModel serial;
+  private ImgModel parallel;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    serial = new ImageModel();
+    parallel = new ParallelImageModel(4);
+    image = TestImages.random(37, 101, 11);
+  }
+
+  /**
+   * Check that an in place operation leaves its input equal to the copying operation's result,
+   * with both models.
+   */
+  private void assertSameAsCopying(BiFunction<ImgModel, Image, Image> copying,
+      BiConsumer<ImgModel, Image> inPlace) {
+    int[] expected = TestImages.pixels(copying.apply(serial, image));
+    for (ImgModel model : new ImgModel[]{serial, parallel}) {
+      Image target = TestImages.copy(image);
+      inPlace.accept(model, target);
+      assertArrayEquals(expected, TestImages.pixels(target));
+    }
+  }
+
+  @Test
+  public void testFlips() {
+    assertSameAsCopying(ImgModel::flipHorizontal, ImgModel::flipHorizontalInPlace);
+    assertSameAsCopying(ImgModel::flipVertical, ImgModel::flipVerticalInPlace);
+  }
+
+  @Test
+  public void testPointwise() {
+    assertSameAsCopying((model, img) -> model.brighten(img, 37),
+        (model, img) -> model.brightenInPlace(img, 37));
+    assertSameAsCopying((model, img) -> model.adjustLevels(img, 20, 100, 230),
+        (model, img) -> model.adjustLevelsInPlace(img, 20, 100, 230));
+    double[][] matrix = {{0.393, 0.769, 0.189, -10}, {0.349, 0.686, 0.168, 0},
+        {0.272, 0.534, 0.131, 12.5}};
+    assertSameAsCopying((model, img) -> model.colorMatrix(img, matrix),
+        (model, img) -> model.colorMatrixInPlace(img, matrix));
+  }
+
+  @Test
+  public void testFloatImage() {
+    double[][] matrix = {{0.393, 0.769, 0.189, -10}, {0.349, 0.686, 0.168, 0},
+        {0.272, 0.534, 0.131, 12.5}};
+    FloatImage target = FloatImage.copyOf(image);
+    float[] plane = target.getPlane(0);
+    serial.brightenInPlace(target, 300);
+    serial.colorMatrixInPlace(target, matrix);
+    serial.flipHorizontalInPlace(target);
+    serial.flipVerticalInPlace(target);
+    serial.adjustLevelsInPlace(target, 20, 100, 230);
+    Image expected = serial.adjustLevels(serial.flipVertical(serial.flipHorizontal(
+        serial.colorMatrix(serial.brighten(FloatImage.copyOf(image), 300), matrix))), 20, 100,
+        230);
+    assertArrayEquals(TestImages.pixels(expected), TestImages.pixels(target));
+    assertSame(plane, target.getPlane(0));
+  }
+
+  @Test
+  public void testParallelOnSharedPlanes() {
+    // Split channels share their planes, every band must write to the same copy
+    Image large = PlanarImage.copyOf(TestImages.random(1000, 600, 3));
+    int[] original = TestImages.pixels(large);
+    List<Image> channels = parallel.splitChannels(large);
+    int[] expected = TestImages.pixels(serial.brighten(channels.get(0), 20));
+    parallel.brightenInPlace(channels.get(0), 20);
+    assertArrayEquals(expected, TestImages.pixels(channels.get(0)));
+    assertArrayEquals(original, TestImages.pixels(large));
+  }
+}
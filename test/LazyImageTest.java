@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.LazyImage;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for the lazy flip and channel views.
+ */
+public class LazyImageTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = new PackedImage(3, 2);
+    int[] top = {0x010203, 0x040506, 0x070809};
+    int[] bottom = {0x0A0B0C, 0x0D0E0F, 0x101112};
+    image.setRow(0, top);
+    image.setRow(1, bottom);
+  }
+
+  @Test
+  public void testFlipsAreViews() {
+    Image flipped = model.flipVertical(model.flipHorizontal(image));
+    assertTrue(flipped instanceof LazyImage);
+    assertSame(image, ((LazyImage) flipped).getSource());
+
+    int[] row = new int[3];
+    flipped.getRow(0, row);
+    assertArrayEquals(new int[]{0x101112, 0x0D0E0F, 0x0A0B0C}, row);
+    assertArrayEquals(new int[]{7, 8, 9}, flipped.getPixel(1, 0));
+
+    int[] region = new int[2];
+    flipped.getRegion(1, 1, 2, 1, region, 0);
+    assertArrayEquals(new int[]{0x040506, 0x010203}, region);
+  }
+
+  @Test
+  public void testDoubleFlipIsIdentity() {
+    Image twice = model.flipHorizontal(model.flipHorizontal(image));
+    assertSame(image, ((LazyImage) twice).getSource());
+    assertArrayEquals(image.getPixel(0, 0), twice.getPixel(0, 0));
+    assertArrayEquals(image.getPixel(1, 2), twice.getPixel(1, 2));
+  }
+
+  @Test
+  public void testChannelView() {
+    Image green = model.greenComponent(image);
+    assertArrayEquals(new int[]{14, 14, 14}, green.getPixel(1, 1));
+    int[] row = new int[3];
+    green.getRow(0, row);
+    assertArrayEquals(new int[]{0x020202, 0x050505, 0x080808}, row);
+  }
+
+  @Test
+  public void testWriteMaterializesView() {
+    LazyImage flipped = (LazyImage) model.flipHorizontal(image);
+    model.blur(flipped);
+    assertFalse(flipped.isMaterialized());
+
+    flipped.setPixel(0, 0, new int[]{255, 255, 255});
+    assertTrue(flipped.isMaterialized());
+    assertArrayEquals(new int[]{255, 255, 255}, flipped.getPixel(0, 0));
+    assertArrayEquals(new int[]{4, 5, 6}, flipped.getPixel(0, 1));
+    assertArrayEquals(new int[]{7, 8, 9}, image.getPixel(0, 2));
+  }
+}
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.ImageFactory;
+import model.image.LazyImage;
+import model.image.OffHeapImage;
+import model.image.PackedImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for OffHeapImage and the choice of storage in ImageFactory.
+ */
+public class OffHeapImageTest {
+
+  ImgModel model = new ImageModel();
+
+  @Test
+  public void testSetAndGetPixel() {
+    Image image = new OffHeapImage(3, 2);
+    assertArrayEquals(new int[]{0, 0, 0}, image.getPixel(1, 2));
+    image.setPixel(1, 2, new int[]{255, 128, 1});
+    image.setPixel(0, 0, 1, 77);
+    assertArrayEquals(new int[]{255, 128, 1}, image.getPixel(1, 2));
+    assertArrayEquals(new int[]{0, 77, 0}, image.getPixel(0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> image.getPixel(2, 0));
+  }
+
+  @Test
+  public void testResultsStayOffHeap() {
+    Image image = new OffHeapImage(4, 4);
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 4; col++) {
+        image.setPixel(row, col, new int[]{row * 60, col * 60, 100});
+      }
+    }
+    Image packed = new PackedImage(4, 4);
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 4; col++) {
+        packed.setPixel(row, col, image.getPixel(row, col));
+      }
+    }
+
+    Image blurred = model.blur(image);
+    assertTrue(blurred instanceof OffHeapImage);
+    assertTrue(model.downscale(image, 2, 2) instanceof OffHeapImage);
+    assertTrue(((LazyImage) model.redComponent(image)).materialize() instanceof OffHeapImage);
+
+    Image expected = model.blur(packed);
+    for (int row = 0; row < 4; row++) {
+      for (int col = 0; col < 4; col++) {
+        assertArrayEquals(expected.getPixel(row, col), blurred.getPixel(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testFactoryThreshold() {
+    long threshold = ImageFactory.getOffHeapThreshold();
+    try {
+      ImageFactory.setOffHeapThreshold(10);
+      assertTrue(ImageFactory.create(3, 3) instanceof PackedImage);
+      assertTrue(ImageFactory.create(5, 2) instanceof OffHeapImage);
+    } finally {
+      ImageFactory.setOffHeapThreshold(threshold);
+    }
+  }
+}
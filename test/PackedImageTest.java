@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.PackedImage;
+import model.image.SimpleImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for PackedImage.
+ */
+public class PackedImageTest {
+
+  ImgModel model = new ImageModel();
+
+  @Test
+  public void testNewImageIsBlack() {
+    Image image = new PackedImage(3, 2);
+    assertEquals(3, image.getWidth());
+    assertEquals(2, image.getHeight());
+    assertArrayEquals(new int[]{0, 0, 0}, image.getPixel(1, 2));
+  }
+
+  @Test
+  public void testSetAndGetPixel() {
+    Image image = new PackedImage(2, 2);
+    image.setPixel(0, 1, new int[]{12, 200, 255});
+    image.setPixel(1, 0, 1, 99);
+    assertArrayEquals(new int[]{12, 200, 255}, image.getPixel(0, 1));
+    assertArrayEquals(new int[]{0, 99, 0}, image.getPixel(1, 0));
+    assertArrayEquals(new int[]{0, 0, 0}, image.getPixel(0, 0));
+  }
+
+  @Test
+  public void testGetPixelReturnsCopy() {
+    Image image = new PackedImage(1, 1);
+    image.setPixel(0, 0, new int[]{1, 2, 3});
+    int[] pixel = image.getPixel(0, 0);
+    pixel[0] = 100;
+    assertArrayEquals(new int[]{1, 2, 3}, image.getPixel(0, 0));
+  }
+
+  @Test
+  public void testOutOfBounds() {
+    Image image = new PackedImage(2, 2);
+    assertThrows(IndexOutOfBoundsException.class, () -> image.getPixel(0, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> image.setPixel(2, 0, new int[]{1, 1, 1}));
+  }
+
+  @Test
+  public void testModelMatchesSimpleImage() {
+    Image simple = new SimpleImage(3, 3);
+    Image packed = new PackedImage(3, 3);
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        int[] rgb = {row * 80, col * 90, (row + col) * 40};
+        simple.setPixel(row, col, rgb.clone());
+        packed.setPixel(row, col, rgb.clone());
+      }
+    }
+    Image fromSimple = model.sepia(model.blur(simple));
+    Image fromPacked = model.sepia(model.blur(packed));
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 3; col++) {
+        assertArrayEquals(fromSimple.getPixel(row, col), fromPacked.getPixel(row, col));
+      }
+    }
+  }
+}
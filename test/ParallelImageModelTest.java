@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import model.ImageModel;
+import model.ImgModel;
+import model.ParallelImageModel;
+import model.Resampler;
+import model.image.Image;
+import model.image.LazyImage;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for ParallelImageModel.
+ */
+public class ParallelImageModelTest {
+
+  private ImgModel serial;
+  private ImgModel parallel;
+  private ImgModel counting;
+  private AtomicInteger bands;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    serial = new ImageModel();
+    parallel = new ParallelImageModel(4);
+    bands = new AtomicInteger();
+    counting = new ParallelImageModel(4) {
+      @Override
+      protected void forEachBand(int height, RowBand task) {
+        super.forEachBand(height, (start, end) -> {
+          bands.incrementAndGet();
+          task.run(start, end);
+        });
+      }
+    };
+    image = new PackedImage(53, 211);
+    Random random = new Random(7);
+    int[] line = new int[image.getWidth()];
+    for (int row = 0; row < image.getHeight(); row++) {
+      for (int col = 0; col < line.length; col++) {
+        line[col] = random.nextInt(0x1000000);
+      }
+      image.setRow(row, line);
+    }
+  }
+
+  private void assertSameResult(Function<ImgModel, Image> operation) {
+    assertSameImage(operation.apply(serial), operation.apply(parallel));
+  }
+
+  /**
+   * Check that a lazy result of the parallel model is computed in several bands of rows when it
+   * is materialized, and gives the pixels of the serial model.
+   */
+  private void assertMaterializedInBands(Function<ImgModel, Image> operation) {
+    Image view = operation.apply(counting);
+    assertTrue(view instanceof LazyImage);
+    bands.set(0);
+    Image actual = counting.materialize(view);
+    assertTrue(bands.get() > 1);
+    assertTrue(((LazyImage) view).isMaterialized());
+    assertSameImage(operation.apply(serial), actual);
+  }
+
+  private void assertSameImage(Image expected, Image actual) {
+    assertEquals(expected.getWidth(), actual.getWidth());
+    assertEquals(expected.getHeight(), actual.getHeight());
+    int[] expectedRow = new int[expected.getWidth()];
+    int[] actualRow = new int[actual.getWidth()];
+    for (int row = 0; row < expected.getHeight(); row++) {
+      expected.getRow(row, expectedRow);
+      actual.getRow(row, actualRow);
+      assertArrayEquals(expectedRow, actualRow);
+    }
+  }
+
+  @Test
+  public void testPointOperations() {
+    assertSameResult(m -> m.brighten(image, 40));
+    assertSameResult(m -> m.brighten(image, -40));
+    assertSameResult(m -> m.toGreyscale(image));
+    assertSameResult(m -> m.sepia(image));
+    assertSameResult(m -> m.luma(image));
+    assertSameResult(m -> m.value(image));
+    assertSameResult(m -> m.intensity(image));
+    assertSameResult(m -> m.adjustLevels(image, 20, 100, 230));
+  }
+
+  @Test
+  public void testNeighbourhoodOperations() {
+    assertSameResult(m -> m.blur(image));
+    assertSameResult(m -> m.sharpen(image));
+    assertSameResult(m -> m.areaDownscale(image, 17, 40));
+    assertSameResult(m -> m.resize(image, 71, 23, Resampler.Filter.LANCZOS));
+    assertSameResult(m -> m.downscale(image, 31, 97));
+    assertSameResult(m -> m.correctColor(image));
+    assertSameResult(m -> m.histogram(image));
+  }
+
+  @Test
+  public void testPointwiseViewsMaterializeInBands() {
+    assertMaterializedInBands(m -> m.brighten(image, 40));
+    assertMaterializedInBands(m -> m.adjustLevels(image, 20, 100, 230));
+    assertMaterializedInBands(m -> m.correctColor(image));
+    assertMaterializedInBands(m -> m.adjustLevels(m.brighten(image, -30), 20, 100, 230));
+  }
+
+  @Test
+  public void testColorMatrixViewsMaterializeInBands() {
+    assertMaterializedInBands(m -> m.toGreyscale(image));
+    assertMaterializedInBands(m -> m.sepia(image));
+    assertMaterializedInBands(m -> m.luma(m.sepia(image)));
+    assertMaterializedInBands(m -> m.redComponent(m.sepia(image)));
+    assertMaterializedInBands(m -> m.colorMatrix(m.brighten(image, 20),
+        new double[][]{{0.5, 0.25, 0, 10}, {0, 1, 0, 0}, {0.1, 0.2, 0.3, 0}}));
+  }
+}
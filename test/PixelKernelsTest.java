@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.PixelKernels;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for PixelKernels, with or without the Vector API kernels. Runs of every length up to a few
+ * vectors check that the vector part and the scalar remainder meet.
+ */
+public class PixelKernelsTest {
+
+  @Test
+  public void testValueAndIntensity() {
+    Random random = new Random(2);
+    for (int length = 0; length < 70; length++) {
+      int[] line = new int[length];
+      for (int i = 0; i < length; i++) {
+        line[i] = random.nextInt(0x1000000);
+      }
+      int[] value = line.clone();
+      int[] intensity = line.clone();
+      PixelKernels.value(value);
+      PixelKernels.intensity(intensity);
+      for (int i = 0; i < length; i++) {
+        int r = (line[i] >> 16) & 0xFF;
+        int g = (line[i] >> 8) & 0xFF;
+        int b = line[i] & 0xFF;
+        assertEquals(Math.max(r, Math.max(g, b)) * 0x010101, value[i]);
+        assertEquals((r + g + b) / 3 * 0x010101, intensity[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testBrightenAndSepiaOfOddWidths() {
+    ImgModel model = new ImageModel();
+    for (int width = 1; width < 40; width += 3) {
+      Image image = TestImages.random(width, 3, width);
+      Image brighter = model.brighten(image, 70);
+      Image darker = model.brighten(image, -45);
+      Image sepia = model.sepia(image);
+      for (int row = 0; row < 3; row++) {
+        for (int col = 0; col < width; col++) {
+          int[] pixel = image.getPixel(row, col);
+          int[] sepiaPixel = {
+              (int) Math.min(0.393 * pixel[0] + 0.769 * pixel[1] + 0.189 * pixel[2], 255),
+              (int) Math.min(0.349 * pixel[0] + 0.686 * pixel[1] + 0.168 * pixel[2], 255),
+              (int) Math.min(0.272 * pixel[0] + 0.534 * pixel[1] + 0.131 * pixel[2], 255)};
+          for (int c = 0; c < 3; c++) {
+            assertEquals(Math.min(pixel[c] + 70, 255), brighter.getPixel(row, col)[c]);
+            assertEquals(Math.max(pixel[c] - 45, 0), darker.getPixel(row, col)[c]);
+            // Fixed point may differ by one from the double result
+            assertEquals(sepiaPixel[c], sepia.getPixel(row, col)[c], 1);
+          }
+        }
+      }
+      int[] rows = new int[width * 3];
+      brighter.getRegion(0, 0, width, 3, rows, 0);
+      int[] expected = new int[width * 3];
+      for (int i = 0; i < expected.length; i++) {
+        expected[i] = brighter.getRGB(i / width, i % width);
+      }
+      assertArrayEquals(expected, rows);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.PackedImage;
+import model.image.PlanarImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for PlanarImage and the plane sharing of the component, split and combine operations.
+ */
+public class PlanarImageTest {
+
+  private ImgModel model;
+  private PlanarImage image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = new PlanarImage(2, 1);
+    image.setPixel(0, 0, new int[]{10, 20, 30});
+    image.setPixel(0, 1, new int[]{200, 150, 255});
+  }
+
+  @Test
+  public void testSetAndGetPixel() {
+    assertArrayEquals(new int[]{10, 20, 30}, image.getPixel(0, 0));
+    assertArrayEquals(new int[]{200, 150, 255}, image.getPixel(0, 1));
+    image.setPixel(0, 0, 2, 7);
+    assertArrayEquals(new int[]{10, 20, 7}, image.getPixel(0, 0));
+  }
+
+  @Test
+  public void testNegativeDimensions() {
+    assertThrows(IllegalArgumentException.class, () -> new PlanarImage(-1, 4));
+    assertThrows(IllegalArgumentException.class, () -> new PlanarImage(4, -1));
+  }
+
+  @Test
+  public void testComponentSharesPlaneWithoutLeakingWrites() {
+    Image red = model.redComponent(image);
+    assertArrayEquals(new int[]{200, 200, 200}, red.getPixel(0, 1));
+
+    red.setPixel(0, 1, 0, 1);
+    assertArrayEquals(new int[]{1, 200, 200}, red.getPixel(0, 1));
+    assertArrayEquals(new int[]{200, 150, 255}, image.getPixel(0, 1));
+
+    image.setPixel(0, 0, new int[]{0, 0, 0});
+    assertArrayEquals(new int[]{10, 10, 10}, red.getPixel(0, 0));
+  }
+
+  @Test
+  public void testSplitAndCombine() {
+    Image red = model.redComponent(image);
+    Image green = model.greenComponent(image);
+    Image blue = model.blueComponent(image);
+    Image combined = model.combineImage(red, green, blue);
+    assertArrayEquals(new int[]{10, 20, 30}, combined.getPixel(0, 0));
+    assertArrayEquals(new int[]{200, 150, 255}, combined.getPixel(0, 1));
+
+    combined.setPixel(0, 0, new int[]{1, 2, 3});
+    assertArrayEquals(new int[]{20, 20, 20}, green.getPixel(0, 0));
+  }
+
+  @Test
+  public void testSplitChannels() {
+    Image packed = new PackedImage(2, 1);
+    packed.setRow(0, new int[]{0x0A141E, 0xC896FF});
+    List<Image> channels = model.splitChannels(packed);
+    assertEquals(3, channels.size());
+    assertArrayEquals(new int[]{200, 200, 200}, channels.get(0).getPixel(0, 1));
+    assertArrayEquals(new int[]{20, 20, 20}, channels.get(1).getPixel(0, 0));
+    assertArrayEquals(new int[]{255, 255, 255}, channels.get(2).getPixel(0, 1));
+    assertTrue(channels.get(0) instanceof PlanarImage);
+
+    channels.get(1).setPixel(0, 0, new int[]{1, 2, 3});
+    assertArrayEquals(new int[]{30, 30, 30}, channels.get(2).getPixel(0, 0));
+
+    // A planar source shares its planes with the channels
+    model.splitChannels(image).get(0).setPixel(0, 0, new int[]{1, 2, 3});
+    assertArrayEquals(new int[]{10, 20, 30}, image.getPixel(0, 0));
+  }
+
+  @Test
+  public void testCombineSharesPlanarAndCopiesOthers() {
+    List<Image> channels = model.splitChannels(image);
+    Image brighterGreen = model.brighten(channels.get(1), 5);
+    Image combined = model.combineImage(channels.get(0), brighterGreen, channels.get(2));
+    assertTrue(combined instanceof PlanarImage);
+    assertArrayEquals(new int[]{10, 25, 30}, combined.getPixel(0, 0));
+    assertArrayEquals(new int[]{200, 155, 255}, combined.getPixel(0, 1));
+
+    combined.setPixel(0, 0, new int[]{1, 2, 3});
+    assertArrayEquals(new int[]{10, 10, 10}, channels.get(0).getPixel(0, 0));
+    assertArrayEquals(new int[]{10, 20, 30}, image.getPixel(0, 0));
+  }
+
+  @Test
+  public void testCopyOf() {
+    Image copy = PlanarImage.copyOf(model.brighten(image, 10));
+    assertArrayEquals(new int[]{20, 30, 40}, copy.getPixel(0, 0));
+    assertArrayEquals(new int[]{210, 160, 255}, copy.getPixel(0, 1));
+  }
+}
@@ -0,0 +1,66 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.PackedImage;
+import model.image.PointwiseImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for PointwiseImage and the lookup-table operations of ImageModel.
+ */
+public class PointwiseImageTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = new PackedImage(2, 2);
+    image.setRow(0, new int[]{0xC86432, 0x0A141E});
+    image.setRow(1, new int[]{0xFFFFFF, 0x808080});
+  }
+
+  @Test
+  public void testChainComposesIntoOneView() {
+    Image brightened = model.brighten(image, 40);
+    Image adjusted = model.adjustLevels(brightened, 20, 100, 230);
+    assertTrue(adjusted instanceof PointwiseImage);
+    assertSame(image, ((PointwiseImage) adjusted).getSource());
+
+    int[] table = ((PointwiseImage) adjusted).getTable(0);
+    // 0 is brightened to 40, which levels maps to (40 - 20) * 128 / 80
+    assertArrayEquals(new int[]{32, 255}, new int[]{table[0], table[255]});
+    // 200 is brightened to 240, above the white point of 230
+    assertArrayEquals(new int[]{255, 167, 112}, adjusted.getPixel(0, 0));
+    assertArrayEquals(new int[]{48, 64, 80}, adjusted.getPixel(0, 1));
+  }
+
+  @Test
+  public void testMaterializedViewIsNotComposed() {
+    PointwiseImage brightened = (PointwiseImage) model.brighten(image, 10);
+    brightened.setPixel(0, 0, new int[]{1, 2, 3});
+    Image again = model.brighten(brightened, 10);
+    assertSame(brightened, ((PointwiseImage) again).getSource());
+    assertArrayEquals(new int[]{11, 12, 13}, again.getPixel(0, 0));
+    assertFalse(((PointwiseImage) again).isMaterialized());
+  }
+
+  @Test
+  public void testInvalidTable() {
+    assertThrows(IllegalArgumentException.class, () -> PointwiseImage.of(image, new int[255]));
+    int[] table = new int[256];
+    table[3] = 256;
+    assertThrows(IllegalArgumentException.class, () -> PointwiseImage.of(image, table));
+  }
+}
@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import model.ImageModel;
+import model.ImgModel;
+import model.ParallelImageModel;
+import model.Region;
+import model.image.Image;
+import model.image.TiledImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for Region and the operations of ImageModel limited to a region.
+ */
+public class RegionTest {
+
+  private ImgModel serial;
+  private ImgModel parallel;
+  private Image image;
+  private Region region;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    serial = new ImageModel();
+    parallel = new ParallelImageModel(4);
+    image = TestImages.random(90, 70, 9);
+    region = new Region(11, 23, 41, 37);
+  }
+
+  /**
+   * Check that an operation on the region matches the full operation inside the region and the
+   * original image outside it, with both models.
+   */
+  private void assertRegionOf(Function<ImgModel, Image> full,
+      BiFunction<ImgModel, Region, Image> partial) {
+    Image expected = full.apply(serial);
+    for (ImgModel model : new ImgModel[]{serial, parallel}) {
+      Image result = partial.apply(model, region);
+      for (int row = 0; row < image.getHeight(); row++) {
+        for (int col = 0; col < image.getWidth(); col++) {
+          boolean inside = row >= 11 && row < 48 && col >= 23 && col < 64;
+          assertEquals(inside ? expected.getRGB(row, col) : image.getRGB(row, col),
+              result.getRGB(row, col));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testKernelOperations() {
+    assertRegionOf(m -> m.blur(image), (m, r) -> m.blur(image, r));
+    assertRegionOf(m -> m.sharpen(image), (m, r) -> m.sharpen(image, r));
+    // Large enough for the engine to pick FFT tiles
+    assertRegionOf(m -> m.gaussianBlur(image, 6), (m, r) -> m.gaussianBlur(image, 6, r));
+    double[][] edges = {{0, -1, 0}, {-1, 4, -1}, {0, -1, 0}};
+    assertRegionOf(m -> m.convolve(image, edges), (m, r) -> m.convolve(image, edges, r));
+  }
+
+  @Test
+  public void testBoxBlurs() {
+    assertRegionOf(m -> m.boxBlur(image, 4), (m, r) -> m.boxBlur(image, 4, r));
+    // Radii reaching past the edges of the image
+    assertRegionOf(m -> m.boxBlur(image, 15), (m, r) -> m.boxBlur(image, 15, r));
+    assertRegionOf(m -> m.blur(image, 20), (m, r) -> m.blur(image, 20, r));
+    assertThrows(IllegalArgumentException.class, () -> serial.boxBlur(image, -1, region));
+    assertThrows(IllegalArgumentException.class, () -> serial.blur(image, -1, region));
+  }
+
+  @Test
+  public void testPixelOperations() {
+    assertRegionOf(m -> m.brighten(image, 30), (m, r) -> m.brighten(image, 30, r));
+    assertRegionOf(m -> m.toGreyscale(image), (m, r) -> m.toGreyscale(image, r));
+    assertRegionOf(m -> m.sepia(image), (m, r) -> m.sepia(image, r));
+    assertRegionOf(m -> m.luma(image), (m, r) -> m.luma(image, r));
+    assertRegionOf(m -> m.value(image), (m, r) -> m.value(image, r));
+    assertRegionOf(m -> m.intensity(image), (m, r) -> m.intensity(image, r));
+    assertRegionOf(m -> m.adjustLevels(image, 20, 100, 230),
+        (m, r) -> m.adjustLevels(image, 20, 100, 230, r));
+    assertRegionOf(m -> m.correctColor(image), (m, r) -> m.correctColor(image, r));
+  }
+
+  @Test
+  public void testSplitRegionMatchesSplitView() {
+    Region split = Region.split(image, 20);
+    assertEquals(18, split.getWidth());
+    int[] expected = new int[90 * 70];
+    serial.splitView(image, serial.blur(image), 20).getRegion(0, 0, 90, 70, expected, 0);
+    int[] actual = new int[90 * 70];
+    serial.blur(image, split).getRegion(0, 0, 90, 70, actual, 0);
+    assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void testTiledSourceIsNotModified() {
+    TiledImage tiled = TiledImage.copyOf(image);
+    Image result = serial.sepia(tiled, new Region(0, 0, 10, 10));
+    assertEquals(image.getRGB(69, 89), result.getRGB(69, 89));
+    assertEquals(image.getRGB(5, 5), tiled.getRGB(5, 5));
+  }
+
+  @Test
+  public void testInvalidRegion() {
+    assertThrows(IllegalArgumentException.class, () -> new Region(-1, 0, 5, 5));
+    assertThrows(IllegalArgumentException.class,
+        () -> serial.blur(image, new Region(60, 0, 10, 11)));
+    assertThrows(IllegalArgumentException.class, () -> serial.sepia(image, (Region) null));
+    assertThrows(IllegalArgumentException.class, () -> Region.split(image, 101));
+  }
+}
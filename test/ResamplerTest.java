@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.Resampler;
+import model.image.Image;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for Resampler and ImageModel.resize.
+ */
+public class ResamplerTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = TestImages.random(23, 17, 3);
+  }
+
+  @Test
+  public void testSameSizeIsIdentity() {
+    for (Resampler.Filter filter : Resampler.Filter.values()) {
+      assertArrayEquals(TestImages.pixels(image),
+          TestImages.pixels(model.resize(image, 23, 17, filter)));
+    }
+  }
+
+  @Test
+  public void testFlatImageStaysFlat() {
+    Image flat = new PackedImage(9, 7);
+    for (int row = 0; row < 7; row++) {
+      for (int col = 0; col < 9; col++) {
+        flat.setRGB(row, col, 0x3C7DC8);
+      }
+    }
+    for (Resampler.Filter filter : Resampler.Filter.values()) {
+      for (int[] size : new int[][]{{4, 3}, {20, 15}, {9, 2}}) {
+        Image resized = model.resize(flat, size[0], size[1], filter);
+        for (int pixel : TestImages.pixels(resized)) {
+          assertArrayEquals(new int[]{0x3C, 0x7D, 0xC8},
+              new int[]{pixel >> 16, (pixel >> 8) & 0xFF, pixel & 0xFF});
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testEnlargeLinearly() {
+    Image row = new PackedImage(2, 1);
+    row.setRow(0, new int[]{0x000000, 0xC8C8C8});
+    // Output centres fall at -0.25, 0.25, 0.75 and 1.25 source pixels
+    Image large = model.resize(row, 4, 1, Resampler.Filter.TRIANGLE);
+    assertArrayEquals(new int[]{0x000000, 0x323232, 0x969696, 0xC8C8C8}, TestImages.pixels(large));
+  }
+
+  @Test
+  public void testShrinkWithBoxAverages() {
+    Image row = new PackedImage(4, 1);
+    row.setRow(0, new int[]{0x000000, 0x646464, 0x0A0A0A, 0x1E1E1E});
+    Image small = model.resize(row, 2, 1, Resampler.Filter.BOX);
+    assertArrayEquals(new int[]{0x323232, 0x141414}, TestImages.pixels(small));
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class,
+        () -> model.resize(image, 0, 5, Resampler.Filter.BICUBIC));
+    assertThrows(IllegalArgumentException.class, () -> model.resize(image, 5, 5, null));
+  }
+}
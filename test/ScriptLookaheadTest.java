@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import controller.ImageScriptController;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import model.ImageModel;
+import model.image.Image;
+import model.image.LazyImage;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utils.ImageIOHelper;
+
+/**
+ * Test for the way ImageScriptController stores the results of a script: kept lazy, materialized
+ * or computed in place.
+ */
+public class ScriptLookaheadTest {
+
+  private List<Image> sepiaInputs;
+  private List<Image> brightenedInPlace;
+  private ImageScriptController controller;
+  private File input;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() throws IOException {
+    sepiaInputs = new ArrayList<>();
+    brightenedInPlace = new ArrayList<>();
+    controller = new ImageScriptController(new ImageModel() {
+      @Override
+      public Image sepia(Image img) {
+        sepiaInputs.add(img);
+        return super.sepia(img);
+      }
+
+      @Override
+      public void brightenInPlace(Image img, int increment) {
+        brightenedInPlace.add(img);
+        super.brightenInPlace(img, increment);
+      }
+    });
+    Image image = new PackedImage(2, 2);
+    image.setRow(0, new int[]{0x102030, 0x405060});
+    image.setRow(1, new int[]{0x708090, 0xA0B0C0});
+    input = File.createTempFile("input", ".png");
+    input.deleteOnExit();
+    ImageIOHelper.saveImage(input.getPath(), image);
+  }
+
+  private void run(String... lines) throws IOException {
+    File script = File.createTempFile("script", ".txt");
+    try {
+      Files.write(script.toPath(), List.of(lines));
+      controller.runScript(script.getPath());
+    } finally {
+      script.delete();
+    }
+  }
+
+  @Test
+  public void testIntermediateReadOnceStaysLazy() throws IOException {
+    run("load " + input.getPath() + " a",
+        "brighten a b 10",
+        "# sepia b comment",
+        "sepia b c",
+        "horizontal-flip c d");
+    assertEquals(1, sepiaInputs.size());
+    assertFalse(((LazyImage) sepiaInputs.get(0)).isMaterialized());
+  }
+
+  @Test
+  public void testIntermediateReadTwiceIsMaterialized() throws IOException {
+    run("load " + input.getPath() + " a",
+        "brighten a b 10",
+        "sepia b c",
+        "greyScale b d",
+        "brighten a e 20",
+        "sepia e f",
+        "brighten f e 5",
+        "horizontal-flip e g");
+    assertEquals(2, sepiaInputs.size());
+    assertTrue(((LazyImage) sepiaInputs.get(0)).isMaterialized());
+    // e is overwritten before it is read again
+    assertFalse(((LazyImage) sepiaInputs.get(1)).isMaterialized());
+  }
+
+  @Test
+  public void testOverwrittenInputIsModifiedInPlace() throws IOException {
+    run("load " + input.getPath() + " a",
+        "brighten a a 10",
+        "sepia a b",
+        "horizontal-flip a c",
+        "brighten a a 10",
+        "load " + input.getPath() + " d",
+        "brighten d e 10");
+    // The second brighten must copy: c is a view of a
+    assertEquals(1, brightenedInPlace.size());
+    assertSame(brightenedInPlace.get(0), sepiaInputs.get(0));
+    assertFalse(sepiaInputs.get(0) instanceof LazyImage);
+    assertArrayEquals(new int[]{0x1A, 0x2A, 0x3A}, sepiaInputs.get(0).getPixel(0, 0));
+  }
+
+  @Test
+  public void testLongChainIsMaterialized() {
+    StringBuilder commands = new StringBuilder("load " + input.getPath() + " a\n");
+    for (int i = 0; i < 20; i++) {
+      commands.append("brighten a b 1\nsepia b a\n");
+    }
+    controller.runCommand(new StringReader(commands.append("exit\n").toString()));
+    assertEquals(20, sepiaInputs.size());
+    for (Image image : sepiaInputs) {
+      assertTrue(((LazyImage) image).getViewDepth() <= 8);
+    }
+    assertTrue(((LazyImage) sepiaInputs.get(19)).getViewDepth() > 1);
+  }
+}
@@ -0,0 +1,104 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import model.ImageModel;
+import model.ImgModel;
+import model.SummedAreaTable;
+import model.image.Image;
+import model.image.PackedImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for SummedAreaTable and the box blurs of ImageModel.
+ */
+public class SummedAreaTableTest {
+
+  private ImgModel model;
+  private Image image;
+
+  /**
+   * Setup method run before each test.
+   */
+  @BeforeEach
+  public void setUp() {
+    model = new ImageModel();
+    image = TestImages.random(23, 17, 11);
+  }
+
+  @Test
+  public void testSum() {
+    SummedAreaTable table = new SummedAreaTable(image);
+    long expected = 0;
+    for (int row = 3; row < 9; row++) {
+      for (int col = 5; col < 20; col++) {
+        expected += image.getPixel(row, col)[1];
+      }
+    }
+    assertEquals(expected, table.sum(1, 3, 5, 9, 20));
+  }
+
+  @Test
+  public void testBoxBlurMatchesAverage() {
+    int radius = 4;
+    Image blurred = model.boxBlur(image, radius);
+    for (int row = 0; row < image.getHeight(); row++) {
+      for (int col = 0; col < image.getWidth(); col++) {
+        int[] sum = new int[3];
+        int count = 0;
+        for (int r = Math.max(row - radius, 0); r <= Math.min(row + radius, 16); r++) {
+          for (int c = Math.max(col - radius, 0); c <= Math.min(col + radius, 22); c++) {
+            int[] pixel = image.getPixel(r, c);
+            for (int i = 0; i < 3; i++) {
+              sum[i] += pixel[i];
+            }
+            count++;
+          }
+        }
+        int[] expected = new int[3];
+        for (int i = 0; i < 3; i++) {
+          expected[i] = (sum[i] + count / 2) / count;
+        }
+        assertArrayEquals(expected, blurred.getPixel(row, col));
+      }
+    }
+  }
+
+  @Test
+  public void testBlurRadius() {
+    assertArrayEquals(new int[]{1, 1, 2}, SummedAreaTable.gaussianBoxRadii(2, 3));
+    int[] radii = SummedAreaTable.gaussianBoxRadii(10, 3);
+    double variance = 0;
+    for (int radius : radii) {
+      variance += ((2.0 * radius + 1) * (2 * radius + 1) - 1) / 12;
+    }
+    assertEquals(100, variance, 10);
+
+    Image flat = new PackedImage(30, 20);
+    for (int row = 0; row < 20; row++) {
+      for (int col = 0; col < 30; col++) {
+        flat.setRGB(row, col, 0x3C7812);
+      }
+    }
+    Image blurred = model.blur(flat, 12);
+    assertArrayEquals(new int[]{60, 120, 18}, blurred.getPixel(10, 15));
+    assertArrayEquals(new int[]{60, 120, 18}, blurred.getPixel(0, 0));
+
+    Image approximate = model.blur(image, 9);
+    Image exact = model.gaussianBlur(image, 3);
+    for (int c = 0; c < 3; c++) {
+      assertTrue(Math.abs(approximate.getPixel(8, 11)[c] - exact.getPixel(8, 11)[c]) <= 12);
+    }
+  }
+
+  @Test
+  public void testInvalidRadius() {
+    assertThrows(IllegalArgumentException.class, () -> model.boxBlur(image, -1));
+    assertThrows(IllegalArgumentException.class, () -> model.blur(image, -3));
+    assertThrows(IllegalArgumentException.class,
+        () -> SummedAreaTable.checkRadius(-1, image.getWidth(), image.getHeight()));
+    assertThrows(IllegalArgumentException.class, () -> model.boxBlur(null, 2));
+  }
+}
@@ -0,0 +1,57 @@
+import java.util.Random;
+import model.image.Image;
+import model.image.PackedImage;
+
+/**
+ * Helper for the tests that compare whole images: random test images, their pixels and copies.
+ */
+final class TestImages {
+
+  private TestImages() {
+  }
+
+  /**
+   * Create an image of random pixels, filled row by row.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @param seed   seed of the random pixels
+   * @return the image
+   */
+  static Image random(int width, int height, long seed) {
+    Image image = new PackedImage(width, height);
+    Random random = new Random(seed);
+    int[] line = new int[width];
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        line[col] = random.nextInt(0x1000000);
+      }
+      image.setRow(row, line);
+    }
+    return image;
+  }
+
+  /**
+   * Return all pixels of an image as packed 0xRRGGBB values, row by row.
+   *
+   * @param image the image
+   * @return the pixels
+   */
+  static int[] pixels(Image image) {
+    int[] pixels = new int[image.getWidth() * image.getHeight()];
+    image.getRegion(0, 0, image.getWidth(), image.getHeight(), pixels, 0);
+    return pixels;
+  }
+
+  /**
+   * Copy an image into a new packed image.
+   *
+   * @param image the image
+   * @return the copy
+   */
+  static Image copy(Image image) {
+    Image copy = new PackedImage(image.getWidth(), image.getHeight());
+    copy.setRegion(0, 0, image.getWidth(), image.getHeight(), pixels(image), 0);
+    return copy;
+  }
+}
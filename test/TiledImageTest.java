@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import model.ImageModel;
+import model.ImgModel;
+import model.image.Image;
+import model.image.LazyImage;
+import model.image.TiledImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test for TiledImage lazy tiles and copy-on-write sharing.
+ */
+public class TiledImageTest {
+
+  ImgModel model = new ImageModel();
+
+  private TiledImage fill(TiledImage image, int rgb) {
+    int[] line = new int[image.getWidth()];
+    Arrays.fill(line, rgb);
+    for (int row = 0; row < image.getHeight(); row++) {
+      image.setRow(row, line);
+    }
+    return image;
+  }
+
+  @Test
+  public void testTilesAllocatedOnlyWhenWritten() {
+    TiledImage image = new TiledImage(10, 10, 4);
+    assertEquals(0, image.getAllocatedTileCount());
+    assertArrayEquals(new int[]{0, 0, 0}, image.getPixel(9, 9));
+
+    image.setPixel(5, 5, new int[]{0, 0, 0});
+    assertEquals(0, image.getAllocatedTileCount());
+
+    image.setPixel(5, 5, new int[]{1, 2, 3});
+    assertEquals(1, image.getAllocatedTileCount());
+    assertArrayEquals(new int[]{1, 2, 3}, image.getPixel(5, 5));
+  }
+
+  @Test
+  public void testRegionAcrossTiles() {
+    TiledImage image = new TiledImage(7, 3, 3);
+    int[] src = {1, 2, 3, 4, 5, 6, 7};
+    image.setRegion(1, 0, 7, 1, src, 0);
+    int[] dest = new int[5];
+    image.getRegion(1, 1, 5, 1, dest, 0);
+    assertArrayEquals(new int[]{2, 3, 4, 5, 6}, dest);
+  }
+
+  @Test
+  public void testCopyOnWrite() {
+    TiledImage image = fill(new TiledImage(8, 8, 4), 0x102030);
+    TiledImage copy = image.copy();
+    copy.setPixel(0, 0, new int[]{255, 255, 255});
+    assertArrayEquals(new int[]{16, 32, 48}, image.getPixel(0, 0));
+    assertArrayEquals(new int[]{255, 255, 255}, copy.getPixel(0, 0));
+
+    image.setPixel(7, 7, 0, 0);
+    assertArrayEquals(new int[]{16, 32, 48}, copy.getPixel(7, 7));
+  }
+
+  @Test
+  public void testSplitViewKeepsTiledResult() {
+    TiledImage image = fill(new TiledImage(8, 4, 4), 0x808080);
+    Image processed = model.brighten(image, 10);
+    assertTrue(((LazyImage) processed).materialize() instanceof TiledImage);
+
+    Image split = model.splitView(image, processed, 50);
+    assertTrue(split instanceof TiledImage);
+    assertArrayEquals(new int[]{138, 138, 138}, split.getPixel(1, 3));
+    assertArrayEquals(new int[]{128, 128, 128}, split.getPixel(1, 4));
+    assertArrayEquals(new int[]{128, 128, 128}, image.getPixel(1, 3));
+  }
+}
@@ -0,0 +1,91 @@
+package model.image;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the pixel kernels, working on as many packed pixels at once as the
+ * preferred int vector holds. The channels are unpacked with shifts and masks, computed with the
+ * same int arithmetic as the scalar kernels and packed again, so the results are identical.
+ *
+ * <p>This class needs jdk.incubator.vector to compile and to run. It is kept out of src and loaded
+ * by PixelKernels by reflection, see the README.
+ */
+final class VectorKernels implements RowKernels {
+
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+  /**
+   * Integer division of a sum of three channels, at most 765, by 3 as a multiplication and a shift.
+   */
+  private static final int THIRD = 43691;
+  private static final int THIRD_SHIFT = 17;
+
+  @Override
+  public int value(int[] pixels, int from, int to) {
+    int end = from + SPECIES.loopBound(to - from);
+    for (int i = from; i < end; i += SPECIES.length()) {
+      IntVector rgb = IntVector.fromArray(SPECIES, pixels, i);
+      IntVector r = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+      IntVector g = rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+      IntVector b = rgb.and(0xFF);
+      r.max(g).max(b).mul(0x010101).intoArray(pixels, i);
+    }
+    return end;
+  }
+
+  @Override
+  public int intensity(int[] pixels, int from, int to) {
+    int end = from + SPECIES.loopBound(to - from);
+    for (int i = from; i < end; i += SPECIES.length()) {
+      IntVector rgb = IntVector.fromArray(SPECIES, pixels, i);
+      IntVector sum = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF)
+          .add(rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF)).add(rgb.and(0xFF));
+      sum.mul(THIRD).lanewise(VectorOperators.LSHR, THIRD_SHIFT).mul(0x010101)
+          .intoArray(pixels, i);
+    }
+    return end;
+  }
+
+  @Override
+  public int matrix(int[] matrix, int[] pixels, int from, int to) {
+    int max = (256 << 16) - 1;
+    int end = from + SPECIES.loopBound(to - from);
+    for (int i = from; i < end; i += SPECIES.length()) {
+      IntVector rgb = IntVector.fromArray(SPECIES, pixels, i);
+      IntVector r = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+      IntVector g = rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+      IntVector b = rgb.and(0xFF);
+      IntVector red = r.mul(matrix[0]).add(g.mul(matrix[1])).add(b.mul(matrix[2]))
+          .add(matrix[3]).max(0).min(max);
+      IntVector green = r.mul(matrix[4]).add(g.mul(matrix[5])).add(b.mul(matrix[6]))
+          .add(matrix[7]).max(0).min(max);
+      IntVector blue = r.mul(matrix[8]).add(g.mul(matrix[9])).add(b.mul(matrix[10]))
+          .add(matrix[11]).max(0).min(max);
+      red.and(0xFF0000)
+          .or(green.lanewise(VectorOperators.LSHR, 8).and(0xFF00))
+          .or(blue.lanewise(VectorOperators.LSHR, 16))
+          .intoArray(pixels, i);
+    }
+    return end;
+  }
+
+  @Override
+  public int offset(int[] offsets, int[] pixels, int from, int to) {
+    int end = from + SPECIES.loopBound(to - from);
+    for (int i = from; i < end; i += SPECIES.length()) {
+      IntVector rgb = IntVector.fromArray(SPECIES, pixels, i);
+      IntVector red = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF).add(offsets[0])
+          .max(0).min(255);
+      IntVector green = rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF).add(offsets[1])
+          .max(0).min(255);
+      IntVector blue = rgb.and(0xFF).add(offsets[2]).max(0).min(255);
+      red.lanewise(VectorOperators.LSHL, 16)
+          .or(green.lanewise(VectorOperators.LSHL, 8))
+          .or(blue)
+          .intoArray(pixels, i);
+    }
+    return end;
+  }
+}